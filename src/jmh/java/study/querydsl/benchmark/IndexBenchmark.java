@@ -0,0 +1,106 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검색 조건 조합별로 인덱스가 있을 때와 없을 때의 searchPageComplex 지연시간 비교
+ * indexed=false 면 기동 후 엔티티에 선언한 인덱스를 지운다. (FK 제약용으로 H2 가 만드는 team_id 인덱스는 남는다)
+ * 결과 캐시는 크기 0 으로 꺼서 매번 DB 를 탄다.
+ * 조건 4개(username, teamName, ageGoe, ageLoe)의 비어 있지 않은 조합 15개를 모두 돈다. 조건 없는 조회는 인덱스와 상관없는 전체 조회라 뺐다.
+ * 값은 조합과 상관없이 같다: member777 은 teamB, 나이 77 이라 username 이 들어간 조합은 모두 한 건, 나이 범위는 70 ~ 80
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+
+    private static final List<String> INDEXES = List.of(
+            "idx_member_username_age", "idx_member_team_age", "idx_member_age_id", "idx_team_name");
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    //+ 로 이은 조건 이름
+    @Param({"username", "teamName", "ageGoe", "ageLoe",
+            "username+teamName", "username+ageGoe", "username+ageLoe", "teamName+ageGoe", "teamName+ageLoe", "ageGoe+ageLoe",
+            "username+teamName+ageGoe", "username+teamName+ageLoe", "username+ageGoe+ageLoe", "teamName+ageGoe+ageLoe",
+            "username+teamName+ageGoe+ageLoe"})
+    String predicates;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnlyTx;
+    MemberSearchCndition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("index" + indexed + predicates.replace('+', '_'),
+                "--member.search.cache.maximum-size=0",
+                "--sql.statement-budget.enabled=false");
+        EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+        BenchmarkContext.seed(emf, rows);
+        if (!indexed) {
+            dropIndexes(emf);
+        }
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        condition = condition(predicates);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return readOnlyTx.execute(status -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 20)));
+    }
+
+    private static MemberSearchCndition condition(String predicates) {
+        MemberSearchCndition condition = new MemberSearchCndition();
+        for (String predicate : predicates.split("\\+")) {
+            switch (predicate) {
+                case "username" -> condition.setUsername("member777");
+                case "teamName" -> condition.setTeamName("teamB");
+                case "ageGoe" -> condition.setAgeGoe(70);
+                case "ageLoe" -> condition.setAgeLoe(80);
+                default -> throw new IllegalArgumentException(predicates);
+            }
+        }
+        return condition;
+    }
+
+    private static void dropIndexes(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (String index : INDEXES) {
+                em.createNativeQuery("drop index if exists " + index).executeUpdate();
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 JVM 을 띄워서 /v1/members 첫 성공 응답까지 걸린 시간
+ * baseline 은 그대로, optimized 는 CDS 아카이브 + 지연 저장소 초기화(+ -Paot 면 AOT 클래스)로 띄운다.
+ * optimized 가 쓰는 아카이브는 jmh 태스크가 cdsArchive 로 먼저 만든다: ./gradlew -Paot jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"baseline", "optimized"})
+    String mode;
+
+    List<String> command;
+    HttpClient httpClient;
+    int port;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String classpath = System.getProperty("startup.classpath");
+        if (classpath == null) {
+            throw new IllegalStateException("startup.classpath 가 없습니다. gradle jmh 태스크로 실행하세요");
+        }
+        File cdsArchive = new File(System.getProperty("startup.cds-archive"));
+        command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        if (mode.equals("optimized")) {
+            if (!cdsArchive.exists()) {
+                throw new IllegalStateException("CDS 아카이브가 없습니다. gradle jmh 태스크로 실행하세요: " + cdsArchive);
+            }
+            command.add("-XX:SharedArchiveFile=" + cdsArchive);
+            if (Boolean.getBoolean("startup.aot")) {
+                command.add("-Dspring.aot.enabled=true");
+            }
+        }
+        command.add("-cp");
+        command.add(classpath);
+        command.add("study.querydsl.QuerydslApplication");
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup");
+        command.add("--logging.level.org.hibernate.SQL=warn");
+        command.add("--decorator.datasource.p6spy.enable-logging=false");
+        if (mode.equals("optimized")) {
+            command.add("--spring.data.jpa.repositories.bootstrap-mode=deferred");
+        }
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(100))
+                .build();
+    }
+
+    @Setup(Level.Invocation)
+    public void choosePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        List<String> invocation = new ArrayList<>(command);
+        invocation.add("--server.port=" + port);
+        Process process = new ProcessBuilder(invocation)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            return awaitFirstSuccess(process);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private int awaitFirstSuccess(Process process) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/members"))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("애플리케이션이 기동 중에 종료됐습니다. exit=" + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException e) {
+                //아직 포트를 열지 않았다
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("기동 시간 초과: " + STARTUP_TIMEOUT);
+    }
+}
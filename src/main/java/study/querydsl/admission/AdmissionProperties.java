@@ -0,0 +1,24 @@
+package study.querydsl.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.search.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    //예상으로 읽는 행 수가 이 값 이상이면 비싼 검색
+    private long expensiveRows = 10_000;
+    //비싼 검색 동시 실행 수 (bulkhead)
+    private int maxConcurrentExpensive = 2;
+    //자리가 없을 때 기다리는 시간, 0 이면 바로 거절
+    private Duration maxWait = Duration.ofMillis(200);
+    //테이블 통계(행 수, 팀 수, 나이 범위)를 백그라운드에서 다시 읽는 주기
+    private Duration statsTtl = Duration.ofSeconds(60);
+    //member/team 이 바뀌면 이 시간 뒤에 한 번 더 읽는다 (그 사이 변경은 한 번으로 합친다)
+    private Duration statsRefreshAfterChange = Duration.ofSeconds(10);
+}
@@ -0,0 +1,8 @@
+package study.querydsl.admission;
+
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
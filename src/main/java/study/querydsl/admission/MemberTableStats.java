@@ -0,0 +1,125 @@
+package study.querydsl.admission;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TableModificationListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 비용 추정에 쓰는 member/team 테이블 통계
+ * 행 수, 팀 수는 DB 카탈로그의 추정치(H2 information_schema.tables.row_count_estimate)를, 나이 최소/최대는
+ * idx_member_age_id 인덱스 양 끝을 읽는다. 테이블을 훑지 않는다.
+ *
+ * 요청 스레드는 스냅샷만 읽는다. 처음 한 번만 요청 스레드에서 적재하고, 이후 갱신은 백그라운드 스레드가 한다.
+ * statsTtl 마다 갱신하고, member/team 변경(DmlStatementInspector 알림)이 있으면 statsRefreshAfterChange 뒤에 한 번 더 갱신한다.
+ * (그 사이 변경은 한 번의 갱신으로 합쳐진다)
+ */
+@Slf4j
+@Component
+public class MemberTableStats implements TableModificationListener, AutoCloseable {
+
+    private static final String ROW_COUNT_ESTIMATE = "select row_count_estimate from information_schema.tables"
+            + " where table_schema = 'PUBLIC' and table_name = :table";
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final long refreshAfterChangeMillis;
+    private final ScheduledExecutorService scheduler;
+    //변경 후 갱신이 이미 예약돼 있는지
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public MemberTableStats(EntityManager em, PlatformTransactionManager transactionManager, AdmissionProperties properties) {
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.refreshAfterChangeMillis = properties.getStatsRefreshAfterChange().toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-table-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long ttl = properties.getStatsTtl().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, ttl, ttl, TimeUnit.MILLISECONDS);
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    @Override
+    public void tableModified(String table) {
+        if ((table.equals("member") || table.equals("team")) && refreshScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::refreshQuietly, refreshAfterChangeMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 통계를 지금 다시 읽는다. 백그라운드 갱신과 테스트에서 호출한다.
+     */
+    public void refresh() {
+        //적재 중에 들어온 변경은 다음 갱신으로 예약되도록 먼저 내린다
+        refreshScheduled.set(false);
+        snapshot = readOnlyTx.execute(status -> load());
+    }
+
+    //갱신에 실패해도 이전 스냅샷을 계속 쓴다
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("member table stats refresh failed, keeping previous snapshot", e);
+        }
+    }
+
+    private Snapshot load() {
+        long rows = rowCountEstimate("MEMBER");
+        long teams = rowCountEstimate("TEAM");
+        Object[] ages = em.createQuery("select min(m.age), max(m.age) from Member m", Object[].class)
+                .getSingleResult();
+        int minAge = ages[0] != null ? (Integer) ages[0] : 0;
+        int maxAge = ages[1] != null ? (Integer) ages[1] : 0;
+        return new Snapshot(rows, teams, minAge, maxAge, System.nanoTime());
+    }
+
+    private long rowCountEstimate(String table) {
+        Number rows = (Number) em.createNativeQuery(ROW_COUNT_ESTIMATE)
+                .setParameter("table", table)
+                .getSingleResult();
+        return rows != null ? rows.longValue() : 0;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Snapshot {
+        private final long rows;
+        private final long teams;
+        private final int minAge;
+        private final int maxAge;
+        private final long loadedAt;
+    }
+}
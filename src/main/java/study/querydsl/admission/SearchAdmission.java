@@ -0,0 +1,94 @@
+package study.querydsl.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCndition;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 검색 요청 입장 제어
+ * 추정 행 수가 expensiveRows 미만인 검색은 바로 실행하고, 이상이면 bulkhead(세마포어) 자리가 날 때까지 maxWait 만큼 기다린 뒤 거절한다.
+ * 싼 검색은 세마포어를 거치지 않으므로 비싼 검색 뒤에서 기다리지 않는다.
+ * 비싼 검색 동시 실행 수를 커넥션 풀보다 작게 두면 싼 검색이 쓸 커넥션도 남는다.
+ */
+@Component
+public class SearchAdmission {
+
+    private final AdmissionProperties properties;
+    private final SearchCostEstimator costEstimator;
+    private final Semaphore expensiveSlots;
+    private final MeterRegistry meterRegistry;
+
+    public SearchAdmission(AdmissionProperties properties, SearchCostEstimator costEstimator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.costEstimator = costEstimator;
+        this.expensiveSlots = new Semaphore(properties.getMaxConcurrentExpensive(), true);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("member.search.admission.expensive.active", this,
+                        admission -> properties.getMaxConcurrentExpensive() - admission.expensiveSlots.availablePermits())
+                .register(meterRegistry);
+    }
+
+    public <T> T admit(MemberSearchCndition condition, Supplier<T> search) {
+        if (!properties.isEnabled()) {
+            return search.get();
+        }
+        return run(costEstimator.matchedRows(condition), search);
+    }
+
+    //offset 만큼 건너뛴 행도 읽으므로 offset + pageSize 로 본다
+    public <T> T admitPage(MemberSearchCndition condition, long offsetPlusPageSize, Supplier<T> search) {
+        if (!properties.isEnabled()) {
+            return search.get();
+        }
+        return run(costEstimator.rowsToFill(condition, offsetPlusPageSize), search);
+    }
+
+    //여러 조건을 한 쿼리로 실행하므로 합계로 본다
+    public <T> T admitAll(List<MemberSearchCndition> conditions, Supplier<T> search) {
+        if (!properties.isEnabled()) {
+            return search.get();
+        }
+        long rows = 0;
+        for (MemberSearchCndition condition : conditions) {
+            rows += costEstimator.matchedRows(condition);
+        }
+        return run(rows, search);
+    }
+
+    private <T> T run(long estimatedRows, Supplier<T> search) {
+        if (estimatedRows < properties.getExpensiveRows()) {
+            count("cheap", "admitted");
+            return search.get();
+        }
+        if (!acquire()) {
+            count("expensive", "rejected");
+            throw new AdmissionRejectedException("비싼 검색(예상 " + estimatedRows + "행)이 이미 "
+                    + properties.getMaxConcurrentExpensive() + "개 실행 중입니다. 조건을 좁히거나 잠시 후 다시 시도하세요");
+        }
+        count("expensive", "admitted");
+        try {
+            return search.get();
+        } finally {
+            expensiveSlots.release();
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return expensiveSlots.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void count(String cost, String outcome) {
+        meterRegistry.counter("member.search.admission", "cost", cost, "outcome", outcome).increment();
+    }
+}
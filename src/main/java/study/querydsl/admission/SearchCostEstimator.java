@@ -0,0 +1,67 @@
+package study.querydsl.admission;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCndition;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 조건으로 읽게 될 행 수를 추정한다.
+ * 조건마다 선택도를 곱한다 (조건끼리 독립이라고 가정). username 은 거의 한 건, teamName 은 1/팀 수, 나이는 범위 비율.
+ * 모든 조건에 인덱스가 있으므로 (Member @Table 참고) 읽는 행 수 ≈ 조건에 맞는 행 수로 본다.
+ */
+@Component
+public class SearchCostEstimator {
+
+    private final MemberTableStats tableStats;
+
+    public SearchCostEstimator(MemberTableStats tableStats) {
+        this.tableStats = tableStats;
+    }
+
+    //결과 전체를 읽거나 전체를 세는 검색 (/v1, /v2, /v3, /v5, export)
+    public long matchedRows(MemberSearchCndition condition) {
+        MemberTableStats.Snapshot stats = tableStats.current();
+        return rows(stats.getRows() * selectivity(condition, stats));
+    }
+
+    //count 없이 한 페이지만 읽는 검색 (/v4, /v6). 인덱스로 맞는 행만 읽거나, id 순으로 훑다가 offset + pageSize 를 채우면 멈춘다
+    public long rowsToFill(MemberSearchCndition condition, long offsetPlusPageSize) {
+        MemberTableStats.Snapshot stats = tableStats.current();
+        double selectivity = selectivity(condition, stats);
+        long matched = rows(stats.getRows() * selectivity);
+        long scanned = selectivity > 0 ? rows(offsetPlusPageSize / selectivity) : stats.getRows();
+        return Math.min(matched, scanned);
+    }
+
+    //추정치라 반올림하되, 맞는 행이 있을 수 있으면 최소 1
+    private static long rows(double estimate) {
+        return estimate > 0 ? Math.max(1, Math.round(estimate)) : 0;
+    }
+
+    private double selectivity(MemberSearchCndition condition, MemberTableStats.Snapshot stats) {
+        if (stats.getRows() == 0) {
+            return 0;
+        }
+        double selectivity = 1.0;
+        if (hasText(condition.getUsername())) {
+            selectivity *= 1.0 / stats.getRows();
+        }
+        if (hasText(condition.getTeamName())) {
+            selectivity *= 1.0 / Math.max(1, stats.getTeams());
+        }
+        return selectivity * ageSelectivity(condition.getAgeGoe(), condition.getAgeLoe(), stats);
+    }
+
+    private double ageSelectivity(Integer ageGoe, Integer ageLoe, MemberTableStats.Snapshot stats) {
+        if (ageGoe == null && ageLoe == null) {
+            return 1.0;
+        }
+        int from = Math.max(ageGoe != null ? ageGoe : stats.getMinAge(), stats.getMinAge());
+        int to = Math.min(ageLoe != null ? ageLoe : stats.getMaxAge(), stats.getMaxAge());
+        if (from > to) {
+            return 0;
+        }
+        return (double) (to - from + 1) / (stats.getMaxAge() - stats.getMinAge() + 1);
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.cache;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate 가 실행하는 SQL 중 insert/update/delete 를 보고 대상 테이블을 TableModificationListener 에 알린다.
+ * 엔티티 변경뿐 아니라 Querydsl/JPQL 벌크 update, delete 와 네이티브 쿼리도 여기를 지나간다.
+ * use_sql_comments 로 붙는 앞쪽 주석은 건너뛴다.
+ */
+@Component
+public class DmlStatementInspector implements StatementInspector {
+
+    private static final Pattern DML = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert\\s+into|update|delete\\s+from|delete|merge\\s+into)\\s+([\\w.\"`]+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    //리스너가 EntityManagerFactory 에 의존할 수 있어서 호출 시점에 찾는다
+    private final ObjectProvider<TableModificationListener> listeners;
+
+    public DmlStatementInspector(ObjectProvider<TableModificationListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String table = modifiedTable(sql);
+        if (table != null) {
+            notifyListeners(table);
+            notifyAfterCompletion(table);
+        }
+        return sql;
+    }
+
+    /**
+     * DML 이면 대상 테이블 이름(소문자), 아니면 null
+     */
+    public static String modifiedTable(String sql) {
+        Matcher matcher = DML.matcher(sql);
+        return matcher.find() ? tableName(matcher.group(1)) : null;
+    }
+
+    private void notifyListeners(String table) {
+        listeners.orderedStream().forEach(listener -> listener.tableModified(table));
+    }
+
+    //트랜잭션이 끝나면 변경된 테이블을 한 번 더 알린다. 그 사이 다른 트랜잭션이 캐시한 커밋 전 값을 버리기 위함
+    @SuppressWarnings("unchecked")
+    private void notifyAfterCompletion(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (tables == null) {
+            Set<String> modified = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, modified);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DmlStatementInspector.this);
+                    modified.forEach(DmlStatementInspector.this::notifyListeners);
+                }
+            });
+            tables = modified;
+        }
+        tables.add(table);
+    }
+
+    private static String tableName(String raw) {
+        String name = raw.replace("\"", "").replace("`", "");
+        int dot = name.lastIndexOf('.');
+        return (dot >= 0 ? name.substring(dot + 1) : name).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCndition;
+
+/**
+ * 검색 결과 캐시 키
+ * 조건은 쿼리에 실제로 반영되는 값으로 정규화한다. (빈 username, 공백 teamName 은 조건 없음과 같다)
+ */
+@EqualsAndHashCode
+@ToString
+public final class SearchCacheKey {
+
+    private final String query;
+    private final String username;
+    private final String teamName;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+    private final long offset;
+    private final int pageSize;
+    private final Sort sort;
+
+    private SearchCacheKey(String query, MemberSearchCndition condition, long offset, int pageSize, Sort sort) {
+        this.query = query;
+        this.username = condition.getUsername() == null || condition.getUsername().isEmpty() ? null : condition.getUsername();
+        this.teamName = condition.getTeamName() == null || condition.getTeamName().isBlank() ? null : condition.getTeamName();
+        this.ageGoe = condition.getAgeGoe();
+        this.ageLoe = condition.getAgeLoe();
+        this.offset = offset;
+        this.pageSize = pageSize;
+        this.sort = sort;
+    }
+
+    public static SearchCacheKey of(String query, MemberSearchCndition condition) {
+        return new SearchCacheKey(query, condition, 0, -1, Sort.unsorted());
+    }
+
+    public static SearchCacheKey of(String query, MemberSearchCndition condition, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SearchCacheKey(query, condition, 0, -1, pageable.getSort());
+        }
+        return new SearchCacheKey(query, condition, pageable.getOffset(), pageable.getPageSize(), pageable.getSort());
+    }
+}
@@ -0,0 +1,92 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.CacheRegionStats;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과 캐시
+ * 크기/TTL 로 제한하고, member/team 테이블에 DML 이 나가면 (DmlStatementInspector) 통째로 비운다.
+ *
+ * 읽기 전용 트랜잭션에서만 캐시를 쓴다. 쓰기 트랜잭션 안의 조회는 커밋 전 데이터를 볼 수 있어서 캐시에 넣으면 안 된다.
+ * 조회하는 동안 무효화가 일어나면 (generation 변경) 결과를 넣지 않는다.
+ * 캐시에 없을 때 같은 키로 동시에 들어온 조회는 SingleFlight 로 한 번만 실행한다.
+ * 캐시된 결과는 호출자끼리 공유하므로 수정하면 안 된다.
+ */
+@Component
+public class SearchResultCache implements TableModificationListener {
+
+    public static final String REGION = "member-search";
+
+    private static final Set<String> WATCHED_TABLES = Set.of("member", "team", "member_team_view");
+
+    private final Cache<SearchCacheKey, Object> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder puts = new LongAdder();
+    private final SingleFlight<SearchCacheKey, Object> singleFlight;
+
+    public SearchResultCache(@Value("${member.search.cache.maximum-size:1000}") long maximumSize,
+                             @Value("${member.search.cache.expire-after-write:30s}") Duration expireAfterWrite,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.singleFlight = new SingleFlight<>("member.search", meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(SearchCacheKey key, Supplier<T> query) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return query.get();
+        }
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        return (T) singleFlight.execute(key, () -> load(key, query));
+    }
+
+    private <T> T load(SearchCacheKey key, Supplier<T> query) {
+        long before = generation.get();
+        T result = query.get();
+        if (result != null && generation.get() == before) {
+            cache.put(key, result);
+            puts.increment();
+            //put 직전에 무효화된 경우
+            if (generation.get() != before) {
+                cache.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void tableModified(String table) {
+        if (WATCHED_TABLES.contains(table)) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheRegionStats stats() {
+        CacheStats stats = cache.stats();
+        return new CacheRegionStats(REGION, stats.hitCount(), stats.missCount(), puts.sum(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.cache;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.CacheRegionStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 2차 캐시 영역별 hit/miss/put/eviction 수
+ * JCache 표준 통계 MBean(javax.cache:type=CacheStatistics)에서 읽는다. 영역 설정은 application.conf 참고
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public List<CacheRegionStats> snapshot() {
+        List<CacheRegionStats> result = new ArrayList<>();
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                result.add(new CacheRegionStats(
+                        name.getKeyProperty("Cache"),
+                        attribute(name, "CacheHits"),
+                        attribute(name, "CacheMisses"),
+                        attribute(name, "CachePuts"),
+                        attribute(name, "CacheEvictions")));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("2차 캐시 통계를 읽을 수 없습니다.", e);
+        }
+        result.sort(Comparator.comparing(CacheRegionStats::getRegion));
+        return result;
+    }
+
+    private long attribute(ObjectName name, String attribute) throws JMException {
+        return ((Number) mBeanServer.getAttribute(name, attribute)).longValue();
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import study.querydsl.deadline.DeadlineExceededException;
+import study.querydsl.deadline.RequestDeadline;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나의 실행으로 합친다.
+ * 먼저 온 호출(leader)이 실행하고, 실행 중에 들어온 호출(follower)은 그 결과(예외 포함)를 같이 받는다.
+ * 키별 CompletableFuture 를 ConcurrentHashMap 에 두는 방식이라 전역 락이 없다.
+ * 실행이 끝나면 바로 빠지므로 결과를 보관하지는 않는다. (보관은 SearchResultCache 가 한다)
+ *
+ * follower 는 자기 RequestDeadline 의 남은 시간만큼만 기다린다.
+ * leader 가 자기 마감 시간 때문에 실패했으면 (DeadlineExceededException, 쿼리 타임아웃) 그 예외는 leader 의 사정이므로,
+ * 아직 시간이 남은 follower 는 같은 키로 다시 시도한다. (새 leader 가 되거나 다른 실행에 합류)
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder(name + ".singleflight")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder(name + ".singleflight")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder(name + ".singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("합쳐진 호출 / 전체 호출")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return lead(key, mine, supplier);
+            }
+
+            followers.increment();
+            try {
+                return follow(running);
+            } catch (RuntimeException e) {
+                if (!isDeadlineFailure(e) || expired(RequestDeadline.current())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Supplier<V> supplier) {
+        leaders.increment();
+        try {
+            V result = supplier.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    //마감 시간이 없는 스레드면 끝날 때까지 기다린다
+    private V follow(CompletableFuture<V> running) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return join(running);
+        }
+        try {
+            return running.get(Math.max(deadline.remaining().toNanos(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            deadline.checkNotExpired();
+            throw new DeadlineExceededException(deadline.getEndpoint() + " 요청이 마감 시간 안에 결과를 받지 못했습니다");
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException(deadline.getEndpoint() + " 요청이 결과를 기다리다 중단됐습니다");
+        }
+    }
+
+    //쿼리 타임아웃은 마감 시간에서만 걸므로 (DeadlineJPAQueryFactory) 마감 초과로 본다
+    private static boolean isDeadlineFailure(Throwable e) {
+        return e instanceof DeadlineExceededException
+                || e instanceof jakarta.persistence.QueryTimeoutException
+                || e instanceof org.springframework.dao.QueryTimeoutException;
+    }
+
+    private static boolean expired(RequestDeadline deadline) {
+        return deadline != null && deadline.isExpired();
+    }
+
+    public double coalescingRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause(), e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause, Exception wrapper) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return wrapper instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.cache;
+
+/**
+ * DmlStatementInspector 가 insert/update/delete 를 감지하면 호출된다.
+ * 실행 시점에 한 번, 트랜잭션이 끝난 뒤(커밋/롤백)에 한 번 더 호출되므로 캐시 무효화는 멱등이어야 한다.
+ */
+public interface TableModificationListener {
+
+    /**
+     * @param table 소문자 테이블 이름 (스키마, 따옴표 제외)
+     */
+    void tableModified(String table);
+}
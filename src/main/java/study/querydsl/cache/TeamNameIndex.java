@@ -0,0 +1,160 @@
+package study.querydsl.cache;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 이름 -> 팀 id 목록 인메모리 인덱스
+ * 회원 검색의 teamName 조건을 member.team.id in (...) 로 바꿔서 team 조인 없이 필터링할 수 있게 한다.
+ * 팀 이름은 유일하지 않으므로 id 목록을 담는다.
+ *
+ * 읽기는 volatile 스냅샷의 ConcurrentHashMap 조회뿐이라 락이 없다.
+ * Team 이 저장/수정/삭제되면 TeamNameIndexListener 가 스냅샷을 통째로 버린다. (트랜잭션 종료 시 한 번 더)
+ * 스냅샷을 교체하므로 무효화 전에 시작한 DB 조회 결과는 버려진 스냅샷에만 들어가고 새 스냅샷을 오염시키지 않는다.
+ * 벌크 JPQL/네이티브 쿼리는 엔티티 이벤트가 없으므로 DmlStatementInspector 의 team 테이블 변경 알림으로 무효화한다.
+ * 커밋 전 Team 변경이 있는 트랜잭션의 조회는 스냅샷을 거치지 않는다. 그 결과를 스냅샷에 넣으면 다른 트랜잭션이 미커밋 값을 보게 된다.
+ */
+@Slf4j
+@Component
+public class TeamNameIndex implements TableModificationListener {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), false);
+
+    public TeamNameIndex(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 이름이 teamName 인 팀의 id 목록, 없으면 빈 목록
+     */
+    public List<Long> idsOf(String teamName) {
+        //커밋 전 Team 변경이 있는 트랜잭션은 공유 스냅샷을 보지도 채우지도 않고 자기 트랜잭션에서 직접 찾는다
+        if (hasPendingTeamChanges()) {
+            return find(teamName);
+        }
+        Snapshot current = snapshot;
+        List<Long> ids = current.ids.get(teamName);
+        if (ids != null) {
+            return ids;
+        }
+        if (current.complete) {
+            return List.of();
+        }
+        ids = find(teamName);
+        current.ids.putIfAbsent(teamName, ids);
+        return ids;
+    }
+
+    //team 을 읽는 JPQL 이라 미반영 Team 변경은 Hibernate 자동 flush 규칙대로 보인다
+    private List<Long> find(String teamName) {
+        return List.copyOf(queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .orderBy(team.id.asc())
+                .fetch());
+    }
+
+    /**
+     * 현재 트랜잭션에 커밋 전 Team 변경이 있는지
+     * 저장/삭제와 flush 된 수정은 TeamNameIndexListener 가 트랜잭션 리소스로 표시하고,
+     * flush 전 이름 변경은 영속성 컨텍스트의 Team 을 로딩 시점 값과 비교해서 찾는다. (flush 하지 않는다)
+     */
+    private boolean hasPendingTeamChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return true;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Team changed && isRenamed(changed, entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRenamed(Team changed, EntityEntry entry) {
+        Object[] loadedState = entry.getLoadedState();
+        if (loadedState == null) {
+            return false;
+        }
+        int name = entry.getPersister().getEntityMetamodel().getPropertyIndex("name");
+        return !Objects.equals(loadedState[name], changed.getName());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Snapshot current = snapshot;
+        try {
+            Map<String, List<Long>> grouped = new HashMap<>();
+            for (Tuple row : queryFactory.select(team.id, team.name).from(team).orderBy(team.id.asc()).fetch()) {
+                grouped.computeIfAbsent(row.get(team.name), name -> new ArrayList<>()).add(row.get(team.id));
+            }
+            ConcurrentHashMap<String, List<Long>> ids = new ConcurrentHashMap<>();
+            grouped.forEach((name, teamIds) -> {
+                if (name != null) {
+                    ids.put(name, List.copyOf(teamIds));
+                }
+            });
+            //적재 중에 무효화됐으면 그 스냅샷을 덮어쓰지 않는다
+            synchronized (this) {
+                if (snapshot == current) {
+                    snapshot = new Snapshot(ids, true);
+                }
+            }
+            log.info("team name index loaded: {} names", ids.size());
+        } catch (RuntimeException e) {
+            //적재에 실패해도 조회 시 DB 에서 채워지므로 기동은 계속한다
+            log.warn("team name index preload failed, falling back to lazy lookup", e);
+        }
+    }
+
+    @Override
+    public void tableModified(String table) {
+        if (table.equals("team")) {
+            invalidate();
+        }
+    }
+
+    public void invalidate() {
+        synchronized (this) {
+            snapshot = new Snapshot(new ConcurrentHashMap<>(), false);
+        }
+    }
+
+    private static class Snapshot {
+        private final ConcurrentHashMap<String, List<Long>> ids;
+        //전체 적재된 스냅샷이면 없는 이름은 DB 를 보지 않고 빈 목록
+        private final boolean complete;
+
+        private Snapshot(ConcurrentHashMap<String, List<Long>> ids, boolean complete) {
+            this.ids = ids;
+            this.complete = complete;
+        }
+    }
+}
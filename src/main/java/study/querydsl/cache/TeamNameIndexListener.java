@@ -0,0 +1,53 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Team;
+
+/**
+ * Team 엔티티 변경 시 TeamNameIndex 무효화
+ * 변경 즉시 비워서 같은 트랜잭션 안의 조회가 새 값을 보게 하고, 커밋/롤백 후에 다시 비워서
+ * 그 사이 다른 스레드가 읽어 간 미커밋 값을 버린다.
+ * insert 는 flush 때 나가므로 persist/remove 호출 시점(Pre*)에도 비운다. 이후 조회는 DB 로 가고 JPQL 자동 flush 로 새 팀을 본다.
+ * 트랜잭션에 바인딩한 리소스는 TeamNameIndex 가 "이 트랜잭션에 커밋 전 Team 변경이 있다" 는 표시로도 쓴다.
+ * 리스너는 EntityManagerFactory 생성 중에 만들어지므로 인덱스는 ObjectProvider 로 늦게 가져온다.
+ */
+public class TeamNameIndexListener {
+
+    private final ObjectProvider<TeamNameIndex> teamNameIndex;
+
+    public TeamNameIndexListener(ObjectProvider<TeamNameIndex> teamNameIndex) {
+        this.teamNameIndex = teamNameIndex;
+    }
+
+    @PrePersist
+    @PostPersist
+    @PostUpdate
+    @PreRemove
+    @PostRemove
+    public void teamChanged(Team team) {
+        TeamNameIndex index = teamNameIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        index.invalidate();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(index)) {
+            TransactionSynchronizationManager.bindResource(index, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(index);
+                    index.invalidate();
+                }
+            });
+        }
+    }
+}
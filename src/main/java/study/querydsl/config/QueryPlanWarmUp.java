@@ -0,0 +1,122 @@
+package study.querydsl.config;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.repository.support.QueryShapeProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 기동 시 검색 쿼리 모양을 미리 컴파일해서 Hibernate 쿼리 플랜 캐시를 채운다.
+ * 조건 4개(username, teamName, ageGoe, ageLoe)의 유무 조합 16개마다 각 저장소의 쿼리를 createQuery() 까지만 하고 실행하지 않는다.
+ * ApplicationRunner 는 ApplicationReadyEvent 전에 끝나므로 첫 요청이 HQL 파싱 비용을 내지 않는다.
+ */
+@Slf4j
+@Component
+public class QueryPlanWarmUp implements ApplicationRunner {
+
+    private static final int PREDICATE_COUNT = 4;
+
+    private final List<QueryShapeProvider> providers;
+    private final EntityManager em;
+    private final Statistics statistics;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+
+    public QueryPlanWarmUp(List<QueryShapeProvider> providers, EntityManager em, EntityManagerFactory emf,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${query.warm-up.enabled:true}") boolean enabled) {
+        this.providers = providers;
+        this.em = em;
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            WarmUpResult result = warmUp();
+            log.info("query plan warm-up: {} shapes, {} plans compiled in {} ms",
+                    result.getShapes(), result.getPlansCompiled(), result.getElapsedMillis());
+        } catch (RuntimeException e) {
+            //워밍업 실패로 기동을 막지는 않는다. 첫 요청에서 컴파일될 뿐이다
+            log.warn("query plan warm-up failed", e);
+        }
+    }
+
+    public WarmUpResult warmUp() {
+        return readOnlyTx.execute(status -> {
+            long missesBefore = statistics.getQueryPlanCacheMissCount();
+            long start = System.nanoTime();
+            int shapes = 0;
+            for (MemberSearchCndition condition : conditions(sampleTeamName())) {
+                for (QueryShapeProvider provider : providers) {
+                    for (JPAQuery<?> shape : provider.queryShapes(condition)) {
+                        shape.createQuery();
+                        shapes++;
+                    }
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            long plansCompiled = statistics.isStatisticsEnabled() ? statistics.getQueryPlanCacheMissCount() - missesBefore : -1;
+            return new WarmUpResult(shapes, plansCompiled, elapsedMillis);
+        });
+    }
+
+    //조건 유무 조합. 팀 이름은 실제 팀을 써야 흔한 모양(team_id = ?)이 컴파일된다
+    static List<MemberSearchCndition> conditions(String teamName) {
+        List<MemberSearchCndition> conditions = new ArrayList<>();
+        for (int mask = 0; mask < (1 << PREDICATE_COUNT); mask++) {
+            MemberSearchCndition condition = new MemberSearchCndition();
+            if ((mask & 1) != 0) {
+                condition.setUsername("warm-up");
+            }
+            if ((mask & 2) != 0) {
+                condition.setTeamName(teamName);
+            }
+            if ((mask & 4) != 0) {
+                condition.setAgeGoe(0);
+            }
+            if ((mask & 8) != 0) {
+                condition.setAgeLoe(Integer.MAX_VALUE);
+            }
+            conditions.add(condition);
+        }
+        return conditions;
+    }
+
+    private String sampleTeamName() {
+        return em.createQuery("select t.name from Team t order by t.id", String.class)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .orElse("warm-up");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class WarmUpResult {
+        private final int shapes;
+        private final long plansCompiled; //통계가 꺼져 있으면 -1
+        private final long elapsedMillis;
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import study.querydsl.entity.QHello;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QMemberTeamView;
+import study.querydsl.entity.QTeam;
+
+import java.util.List;
+
+/**
+ * Querydsl Q 타입 AOT 힌트
+ * QuerydslPredicateExecutor 는 SimpleEntityPathResolver 로 Q 클래스를 이름으로 찾아서 static 필드(QMember.member)를 리플렉션으로 읽는다.
+ * AOT 처리 결과에 이 힌트가 들어가야 네이티브 이미지에서도 Q 타입을 찾는다.
+ */
+@Configuration
+@ImportRuntimeHints(QuerydslRuntimeHints.QTypeHints.class)
+public class QuerydslRuntimeHints {
+
+    static class QTypeHints implements RuntimeHintsRegistrar {
+
+        private static final List<Class<?>> Q_TYPES = List.of(QMember.class, QTeam.class, QMemberTeamView.class, QHello.class);
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> qType : Q_TYPES) {
+                hints.reflection().registerType(qType,
+                        MemberCategory.DECLARED_FIELDS, MemberCategory.PUBLIC_FIELDS,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+        }
+    }
+}
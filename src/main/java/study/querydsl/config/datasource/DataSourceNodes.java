@@ -0,0 +1,52 @@
+package study.querydsl.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * primary 와 replica 커넥션 풀 묶음, 컨텍스트 종료 시 함께 닫는다.
+ */
+@Getter
+public class DataSourceNodes implements AutoCloseable {
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+
+    public DataSourceNodes(RoutingDataSourceProperties properties) {
+        this.primary = create("primary", properties.getPrimary());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<RoutingDataSourceProperties.Node> nodes = properties.getReplicas();
+        for (int i = 0; i < nodes.size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(name, create(name, nodes.get(i)));
+        }
+        this.replicas = Collections.unmodifiableMap(replicas);
+    }
+
+    private static DataSource create(String name, RoutingDataSourceProperties.Node node) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(node.getUrl());
+        dataSource.setUsername(node.getUsername());
+        dataSource.setPassword(node.getPassword());
+        if (node.getDriverClassName() != null) {
+            dataSource.setDriverClassName(node.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(node.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas.values()) {
+            ((HikariDataSource) replica).close();
+        }
+        ((HikariDataSource) primary).close();
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.config.datasource;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class RandomReplicaPolicy implements ReplicaSelectionPolicy {
+
+    @Override
+    public String select(List<String> replicas) {
+        return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.config.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * replica 의 복제 지연을 측정한다. 예) heartbeat 테이블의 마지막 갱신 시각과 현재 시각의 차이
+ * 빈으로 등록하지 않으면 지연이 없다고 본다.
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    ReplicaLagProbe NONE = (name, replica) -> Duration.ZERO;
+
+    Duration lag(String name, DataSource replica) throws Exception;
+}
@@ -0,0 +1,81 @@
+package study.querydsl.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주기적으로 replica 지연을 확인해서 허용치를 넘은 replica 를 라우팅 후보에서 뺀다.
+ * 측정은 백그라운드 스레드에서 하므로 커넥션을 얻는 경로에서는 집합 조회만 한다.
+ */
+@Slf4j
+public class ReplicaLagTracker implements AutoCloseable {
+
+    private final Map<String, DataSource> replicas;
+    private final ReplicaLagProbe probe;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Set<String> lagging = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagTracker(Map<String, DataSource> replicas, ReplicaLagProbe probe, Duration maxLag, Duration checkInterval) {
+        this.replicas = replicas;
+        this.probe = probe;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void refresh() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            boolean healthy;
+            try {
+                healthy = probe.lag(name, replica.getValue()).compareTo(maxLag) <= 0;
+            } catch (Exception e) {
+                log.warn("replica lag check failed: {}", name, e);
+                healthy = false;
+            }
+            if (healthy) {
+                if (lagging.remove(name)) {
+                    log.info("replica {} is back within lag limit", name);
+                }
+            } else if (lagging.add(name)) {
+                log.warn("replica {} exceeded lag limit {}, routing reads elsewhere", name, maxLag);
+            }
+        }
+    }
+
+    public List<String> healthy(List<String> candidates) {
+        if (lagging.isEmpty()) {
+            return candidates;
+        }
+        return candidates.stream()
+                .filter(name -> !lagging.contains(name))
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
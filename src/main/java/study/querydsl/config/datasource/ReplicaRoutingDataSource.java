@@ -0,0 +1,51 @@
+package study.querydsl.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ * 트랜잭션의 readOnly 여부는 커넥션을 실제로 얻는 시점에 알 수 있으므로 LazyConnectionDataSourceProxy 로 감싸서 사용해야 한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaNames;
+    private final ReplicaSelectionPolicy policy;
+    private final ReplicaLagTracker lagTracker;
+
+    public ReplicaRoutingDataSource(DataSourceNodes nodes, ReplicaSelectionPolicy policy, ReplicaLagTracker lagTracker) {
+        Map<Object, Object> targets = new HashMap<>(nodes.getReplicas());
+        targets.put(PRIMARY, nodes.getPrimary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(nodes.getPrimary());
+        this.replicaNames = List.copyOf(nodes.getReplicas().keySet());
+        this.policy = policy;
+        this.lagTracker = lagTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaNames.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> candidates = lagTracker.healthy(replicaNames);
+        //모든 replica 가 지연되면 primary 에서 읽는다
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return policy.select(candidates);
+    }
+
+    public static DataSource of(DataSourceNodes nodes, ReplicaSelectionPolicy policy, ReplicaLagTracker lagTracker) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(nodes, policy, lagTracker);
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.config.datasource;
+
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션이 사용할 replica 선택 정책
+ * 빈으로 등록하면 기본 정책(app.datasource.routing.policy) 대신 사용한다.
+ */
+public interface ReplicaSelectionPolicy {
+
+    /**
+     * @param replicas 지연 허용치 안에 있는 replica 이름, 비어 있지 않다
+     */
+    String select(List<String> replicas);
+}
@@ -0,0 +1,14 @@
+package study.querydsl.config.datasource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RoundRobinReplicaPolicy implements ReplicaSelectionPolicy {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public String select(List<String> replicas) {
+        return replicas.get(Math.floorMod(counter.getAndIncrement(), replicas.size()));
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.config.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * app.datasource.routing.enabled=true 일 때 spring.datasource 대신 primary/replica 라우팅 데이터소스를 등록한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public DataSourceNodes dataSourceNodes(RoutingDataSourceProperties properties) {
+        return new DataSourceNodes(properties);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaLagTracker replicaLagTracker(DataSourceNodes nodes, RoutingDataSourceProperties properties,
+                                               ObjectProvider<ReplicaLagProbe> lagProbe) {
+        RoutingDataSourceProperties.Routing routing = properties.getRouting();
+        return new ReplicaLagTracker(nodes.getReplicas(), lagProbe.getIfAvailable(() -> ReplicaLagProbe.NONE),
+                routing.getMaxReplicaLag(), routing.getLagCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceNodes nodes, ReplicaLagTracker lagTracker, RoutingDataSourceProperties properties,
+                                 ObjectProvider<ReplicaSelectionPolicy> selectionPolicy) {
+        ReplicaSelectionPolicy policy = selectionPolicy.getIfAvailable(() -> defaultPolicy(properties.getRouting().getPolicy()));
+        return new LazyConnectionDataSourceProxy(ReplicaRoutingDataSource.of(nodes, policy, lagTracker));
+    }
+
+    private static ReplicaSelectionPolicy defaultPolicy(String name) {
+        if ("random".equals(name)) {
+            return new RandomReplicaPolicy();
+        }
+        return new RoundRobinReplicaPolicy();
+    }
+}
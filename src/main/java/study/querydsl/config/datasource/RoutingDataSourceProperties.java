@@ -0,0 +1,37 @@
+package study.querydsl.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "app.datasource")
+public class RoutingDataSourceProperties {
+
+    private Routing routing = new Routing();
+    private Node primary = new Node();
+    private List<Node> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Routing {
+        private boolean enabled;
+        //round-robin, random
+        private String policy = "round-robin";
+        //이 값보다 지연된 replica 는 후보에서 뺀다
+        private Duration maxReplicaLag = Duration.ofSeconds(5);
+        private Duration lagCheckInterval = Duration.ofSeconds(1);
+    }
+
+    @Getter @Setter
+    public static class Node {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
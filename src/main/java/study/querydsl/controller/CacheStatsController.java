@@ -0,0 +1,28 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.SearchResultCache;
+import study.querydsl.cache.SecondLevelCacheStats;
+import study.querydsl.dto.CacheRegionStats;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+public class CacheStatsController {
+
+    private final SecondLevelCacheStats secondLevelCacheStats;
+    private final SearchResultCache searchResultCache;
+
+    @GetMapping("/admin/cache/second-level")
+    public List<CacheRegionStats> secondLevelCache() {
+        return secondLevelCacheStats.snapshot();
+    }
+
+    @GetMapping("/admin/cache/search")
+    public CacheRegionStats searchCache() {
+        return searchResultCache.stats();
+    }
+}
@@ -1,35 +1,114 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.admission.SearchAdmission;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.CountedPage;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberKeysetCursor;
 import study.querydsl.dto.MemberSearchCndition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.repository.MemberRepositoryCustom.MAX_SEARCH_ALL_CONDITIONS;
+
 @RequiredArgsConstructor
 @RestController
 public class MemberController {
+    private static final int MAX_KEYSET_SIZE = 100;
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final SearchAdmission searchAdmission;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCndition condition) {
-        return memberJpaRepository.search(condition);
+        return searchAdmission.admit(condition, () -> memberJpaRepository.search(condition));
+    }
+    //조건 여러 개를 한 번의 쿼리로, 응답은 요청 순서대로 조건별 목록
+    @PostMapping("/v1/members/batch")
+    public List<List<MemberTeamDto>> searchMembersBatch(@RequestBody List<MemberSearchCndition> conditions) {
+        if (conditions.size() > MAX_SEARCH_ALL_CONDITIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "조건은 최대 " + MAX_SEARCH_ALL_CONDITIONS + "개까지 보낼 수 있습니다");
+        }
+        return searchAdmission.admitAll(conditions, () -> memberRepository.searchAll(conditions));
     }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCndition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+        return searchAdmission.admit(condition, () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCndition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public CountedPage<MemberTeamDto> searchMemberV3(MemberSearchCndition condition, Pageable pageable,
+                                                     @RequestParam(defaultValue = "EXACT") CountMode countMode) {
+        return searchAdmission.admit(condition, () -> memberRepository.searchPageComplex(condition, pageable, countMode));
+    }
+
+    @GetMapping("/v4/members")
+    public CursorSlice<MemberTeamDto> searchMemberV4(MemberSearchCndition condition,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "ID") MemberKeysetCursor.SortKey sort,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_KEYSET_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size 는 1 ~ " + MAX_KEYSET_SIZE + " 사이여야 합니다");
+        }
+        MemberKeysetCursor keysetCursor;
+        try {
+            keysetCursor = hasText(cursor) ? MemberKeysetCursor.decode(cursor) : MemberKeysetCursor.first(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return searchAdmission.admitPage(condition, size, () -> memberRepository.searchKeyset(condition, keysetCursor, size));
+    }
+
+    @GetMapping("/v5/members")
+    public Page<MemberTeamDto> searchMemberV5(MemberSearchCndition condition, Pageable pageable) {
+        return searchAdmission.admit(condition, () -> memberRepository.searchPageParallel(condition, pageable));
+    }
+
+    @GetMapping("/v6/members")
+    public Slice<MemberTeamDto> searchMemberV6(MemberSearchCndition condition, Pageable pageable) {
+        return searchAdmission.admitPage(condition, pageable.getOffset() + pageable.getPageSize(),
+                () -> memberRepository.searchSlice(condition, pageable));
+    }
+
+    //NDJSON: 한 줄에 MemberTeamDto 하나, 응답 버퍼가 차는 대로 내려보낸다
+    @GetMapping("/members/export")
+    public void exportMembers(MemberSearchCndition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        ServletOutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+        searchAdmission.admit(condition, () -> memberJpaRepository.exportSearch(condition, dto -> {
+            try {
+                out.write(writer.writeValueAsBytes(dto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        out.flush();
     }
 }
@@ -0,0 +1,22 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamDto;
+import study.querydsl.repository.TeamRepository;
+
+@RequiredArgsConstructor
+@RestController
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    @GetMapping("/v1/teams")
+    public Page<TeamDto> searchTeamV1(@RequestParam(required = false) String teamName, Pageable pageable) {
+        return teamRepository.searchTeamsWithMembers(teamName, pageable);
+    }
+}
@@ -1,42 +1,27 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.PersistenceUnit;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.service.MemberBulkIngestService;
+
+import java.util.List;
 
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class initMember {
 
-    private final InitMemberService initM;
     //postconstruct , transactional은 분리
-    private final InitMemberService initMemberService;
+    private final MemberBulkIngestService memberBulkIngestService;
+
+    @Value("${init.member.count:100}")
+    private long memberCount;
+
     @PostConstruct
     public void init() {
-        initMemberService.init();
-    }
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        EntityManager em;
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
-        }
+        memberBulkIngestService.ingest(List.of("teamA", "teamB"), memberCount);
     }
 }
@@ -0,0 +1,27 @@
+package study.querydsl.deadline;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineConfig implements WebMvcConfigurer {
+
+    private final DeadlineProperties properties;
+
+    public DeadlineConfig(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    //MemberController 엔드포인트만
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        registry.addInterceptor(new DeadlineInterceptor(properties))
+                .addPathPatterns("/v*/members", "/v*/members/**", "/members/**");
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 마감 시간 초과를 503 으로 응답하고 request.deadline.exceeded 로 센다.
+ * phase=before-query 는 쿼리를 보내기 전에 이미 지난 경우, phase=query 는 JDBC 쿼리 타임아웃으로 취소된 경우
+ */
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ProblemDetail deadlineExceeded(DeadlineExceededException e) {
+        return expired("before-query", e.getMessage());
+    }
+
+    //쿼리 타임아웃은 마감 시간에서만 걸므로 마감 초과로 본다
+    @ExceptionHandler({org.springframework.dao.QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ProblemDetail queryTimeout(RuntimeException e) {
+        return expired("query", "쿼리가 마감 시간을 넘어 취소됐습니다");
+    }
+
+    private ProblemDetail expired(String phase, String detail) {
+        RequestDeadline deadline = RequestDeadline.current();
+        meterRegistry.counter("request.deadline.exceeded",
+                "endpoint", deadline != null ? deadline.getEndpoint() : "unknown",
+                "phase", phase).increment();
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, detail);
+    }
+}
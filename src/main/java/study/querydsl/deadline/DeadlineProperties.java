@@ -0,0 +1,24 @@
+package study.querydsl.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "request.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+    //endpoints 에 없는 MemberController 엔드포인트에 쓰는 값
+    private Duration defaultTimeout = Duration.ofSeconds(5);
+    //키는 컨트롤러 매핑 경로, yml 에서는 "[/v1/members]": 2s 처럼 대괄호로 감싼다
+    private Map<String, Duration> endpoints = new HashMap<>();
+
+    public Duration timeoutFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultTimeout);
+    }
+}
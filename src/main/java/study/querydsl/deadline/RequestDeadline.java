@@ -0,0 +1,62 @@
+package study.querydsl.deadline;
+
+import java.time.Duration;
+
+/**
+ * 요청 하나의 마감 시각
+ * 요청 스레드의 스레드 로컬로 들고 다니고, Querydsl 쿼리는 만들어지는 시점에 이 값을 잡아 둔다.
+ * 그래서 ParallelPagination 처럼 다른 스레드에서 실행되는 쿼리도 같은 마감 시각을 따른다.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final Duration timeout;
+    private final long deadlineNanos;
+
+    private RequestDeadline(String endpoint, Duration timeout) {
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    public static RequestDeadline start(String endpoint, Duration timeout) {
+        RequestDeadline deadline = new RequestDeadline(endpoint, timeout);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    //마감 시각이 없는 스레드면 null
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public void checkNotExpired() {
+        if (isExpired()) {
+            throw new DeadlineExceededException(endpoint + " 요청이 마감 시간(" + timeout.toMillis() + "ms)을 넘었습니다");
+        }
+    }
+
+    //JDBC 쿼리 타임아웃은 초 단위라 남은 시간을 초로 올림한다. 1초 미만으로 내리면 0(무제한)이 된다
+    public int queryTimeoutMillis() {
+        long remainingMillis = Math.max(remaining().toMillis(), 1);
+        return (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000 * 1000);
+    }
+}
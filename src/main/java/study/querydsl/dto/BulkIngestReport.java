@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class BulkIngestReport {
+
+    private final int teams;
+    private final long members;
+    private final Duration elapsed;
+    private final double rowsPerSecond;
+
+    public BulkIngestReport(int teams, long members, Duration elapsed) {
+        this.teams = teams;
+        this.members = members;
+        this.elapsed = elapsed;
+        long millis = Math.max(elapsed.toMillis(), 1);
+        this.rowsPerSecond = (teams + members) * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.dto;
+
+/**
+ * 페이징 total 계산 방식
+ */
+public enum CountMode {
+    //count(*) 정확한 값
+    EXACT,
+    //상한(cap)까지만 센다. 넘으면 total = cap, totalCapped = true ("10,000+")
+    CAPPED,
+    //count 쿼리 없이 테이블 통계와 조건 선택도로 추정 (읽기 전용 트랜잭션에서만, 쓰기 트랜잭션은 정확히 센다)
+    ESTIMATED
+}
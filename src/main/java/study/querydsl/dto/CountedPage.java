@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * total 을 어떤 방식으로 구했는지 함께 내려주는 Page
+ */
+@Getter
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final CountMode countMode;
+    //true 면 totalElements 는 실제 개수가 아니라 상한값
+    private final boolean totalCapped;
+
+    public CountedPage(Page<T> page, CountMode countMode, boolean totalCapped) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.countMode = countMode;
+        this.totalCapped = totalCapped;
+    }
+}
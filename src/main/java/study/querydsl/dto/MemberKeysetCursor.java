@@ -0,0 +1,58 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서
+ * 마지막으로 읽은 행의 정렬 키 (member_id) 또는 (age, member_id)를 담아 클라이언트에는 불투명한 문자열로 전달한다.
+ */
+@Getter
+public class MemberKeysetCursor {
+
+    public enum SortKey {ID, AGE}
+
+    private final SortKey sortKey;
+    private final Integer age;
+    private final Long memberId;
+
+    private MemberKeysetCursor(SortKey sortKey, Integer age, Long memberId) {
+        this.sortKey = sortKey;
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    public static MemberKeysetCursor first(SortKey sortKey) {
+        return new MemberKeysetCursor(sortKey, null, null);
+    }
+
+    public boolean isFirst() {
+        return memberId == null;
+    }
+
+    public MemberKeysetCursor next(MemberTeamDto last) {
+        return new MemberKeysetCursor(sortKey, sortKey == SortKey.AGE ? last.getAge() : null, last.getMemberId());
+    }
+
+    public String encode() {
+        String raw = sortKey == SortKey.AGE ? "age:" + age + ":" + memberId : "id:" + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberKeysetCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length == 2 && parts[0].equals("id")) {
+                return new MemberKeysetCursor(SortKey.ID, null, Long.valueOf(parts[1]));
+            }
+            if (parts.length == 3 && parts[0].equals("age")) {
+                return new MemberKeysetCursor(SortKey.AGE, Integer.valueOf(parts[1]), Long.valueOf(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 cursor 입니다: " + cursor, e);
+        }
+        throw new IllegalArgumentException("잘못된 cursor 입니다: " + cursor);
+    }
+}
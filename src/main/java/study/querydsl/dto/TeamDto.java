@@ -0,0 +1,19 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TeamDto {
+
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members;
+
+    public TeamDto(Long teamId, String name, List<MemberDto> members) {
+        this.teamId = teamId;
+        this.name = name;
+        this.members = members;
+    }
+}
@@ -1,14 +1,25 @@
 package study.querydsl.entity;
 import jakarta.persistence.*;
 import lombok.*;
+import study.querydsl.readmodel.MemberTeamViewListener;
 
 @Entity
+@Table(indexes = {
+        //username 동등 + age 범위
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        //teamName 은 TeamNameIndex 로 team_id in (...) 이 되므로 team_id 동등 + age 범위
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        //age 범위만 있는 검색과 (age, member_id) 키셋 정렬
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")
+})
+@EntityListeners(MemberTeamViewListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
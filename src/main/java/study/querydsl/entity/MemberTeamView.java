@@ -0,0 +1,33 @@
+package study.querydsl.entity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * MemberTeamDto 와 같은 모양의 비정규화 읽기 모델 (member + team 조인 결과)
+ * member.search.read-model=view 일 때 MemberTeamViewMaintainer 가 쓰고, 애플리케이션은 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Table(name = "member_team_view", indexes = {
+        @Index(name = "idx_member_team_view_username_age", columnList = "username, age"),
+        //조인 없이 팀 이름으로 바로 거른다
+        @Index(name = "idx_member_team_view_team_name_age", columnList = "team_name, age"),
+        @Index(name = "idx_member_team_view_age_id", columnList = "age, member_id"),
+        //팀 이름 변경 시 갱신 대상 찾기
+        @Index(name = "idx_member_team_view_team_id", columnList = "team_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberTeamView {
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+    private String username;
+    private int age;
+    @Column(name = "team_id")
+    private Long teamId;
+    @Column(name = "team_name")
+    private String teamName;
+}
@@ -0,0 +1,40 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 이벤트로 SQL 실행 수와 커넥션 획득 시간을 잰다.
+ * 빈으로 등록하면 p6spy-spring-boot-starter 가 리스너로 붙여준다.
+ */
+@Component
+public class JdbcMetricsListener extends SimpleJdbcEventListener {
+
+    private final Timer connectionAcquire;
+
+    public JdbcMetricsListener(MeterRegistry meterRegistry) {
+        this.connectionAcquire = Timer.builder("jdbc.connection.acquire")
+                .description("DataSource 에서 커넥션을 얻는 데 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        long nanos = connectionInformation.getTimeToGetConnectionNs();
+        connectionAcquire.record(nanos, TimeUnit.NANOSECONDS);
+        QueryMetricsScope.connectionAcquired(nanos);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryMetricsScope.statementExecuted();
+    }
+}
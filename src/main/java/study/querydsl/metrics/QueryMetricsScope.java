@@ -0,0 +1,60 @@
+package study.querydsl.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 리포지토리 메서드 한 번 호출 동안 실행된 SQL 수와 커넥션 획득 시간을 모은다.
+ * 스레드 로컬이므로 ParallelPagination 처럼 다른 스레드에서 실행된 쿼리는 호출한 메서드에 잡히지 않는다.
+ * 중첩 호출이면 안쪽에서 모은 값이 끝날 때 바깥으로 더해진다.
+ */
+public final class QueryMetricsScope {
+
+    private static final ThreadLocal<Deque<QueryMetricsScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private long statements;
+    private long connectionAcquireNanos;
+
+    private QueryMetricsScope() {
+    }
+
+    public static QueryMetricsScope enter() {
+        QueryMetricsScope scope = new QueryMetricsScope();
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    public void exit() {
+        Deque<QueryMetricsScope> scopes = SCOPES.get();
+        scopes.remove(this);
+        QueryMetricsScope parent = scopes.peek();
+        if (parent != null) {
+            parent.statements += statements;
+            parent.connectionAcquireNanos += connectionAcquireNanos;
+        } else {
+            SCOPES.remove();
+        }
+    }
+
+    static void statementExecuted() {
+        QueryMetricsScope current = SCOPES.get().peek();
+        if (current != null) {
+            current.statements++;
+        }
+    }
+
+    static void connectionAcquired(long nanos) {
+        QueryMetricsScope current = SCOPES.get().peek();
+        if (current != null) {
+            current.connectionAcquireNanos += nanos;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getConnectionAcquireNanos() {
+        return connectionAcquireNanos;
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberSearchCndition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 쿼리 메서드 메트릭
+ * repository.query (지연시간), repository.query.rows (반환 행 수), repository.query.statements (실행 SQL 수),
+ * repository.query.connection.acquire (커넥션 획득 시간) 를 repository, method, predicates 태그로 기록한다.
+ * predicates 는 MemberSearchCndition 에서 값이 있는 조건 이름들이라 조합 수(16개)로 카디널리티가 제한된다.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    //queryShapes 는 기동 시 워밍업용이라 실행 지표에서 뺀다
+    @Around("(execution(public * study.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * study.querydsl.repository.support.Querydsl4RepositorySupport+.*(..)))"
+            + " && !execution(* study.querydsl.repository.support.QueryShapeProvider.queryShapes(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of(
+                "repository", AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName(),
+                "method", joinPoint.getSignature().getName(),
+                "predicates", predicates(joinPoint.getArgs()));
+
+        QueryMetricsScope scope = QueryMetricsScope.enter();
+        long start = System.nanoTime();
+        String exception = "none";
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            scope.exit();
+
+            Timer.builder("repository.query")
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("repository.query.statements")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+            Timer.builder("repository.query.connection.acquire")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(scope.getConnectionAcquireNanos(), TimeUnit.NANOSECONDS);
+            long rows = rows(result);
+            if (rows >= 0) {
+                DistributionSummary.builder("repository.query.rows")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(rows);
+            }
+        }
+    }
+
+    private static String predicates(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCndition condition) {
+                List<String> names = new ArrayList<>();
+                if (condition.getUsername() != null && !condition.getUsername().isEmpty()) {
+                    names.add("username");
+                }
+                if (condition.getTeamName() != null && !condition.getTeamName().isBlank()) {
+                    names.add("teamName");
+                }
+                if (condition.getAgeGoe() != null) {
+                    names.add("ageGoe");
+                }
+                if (condition.getAgeLoe() != null) {
+                    names.add("ageLoe");
+                }
+                return names.isEmpty() ? "none" : String.join(",", names);
+            }
+        }
+        return "none";
+    }
+
+    //행 수를 알 수 없는 반환 타입이면 -1
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof CursorSlice<?> slice) {
+            return slice.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.metrics;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+public class StatementBudgetConfig {
+
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(StatementTracker statementTracker) {
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(new StatementBudgetFilter(statementTracker));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
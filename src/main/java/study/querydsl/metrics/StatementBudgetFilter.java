@@ -0,0 +1,32 @@
+package study.querydsl.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 요청 하나를 StatementTracker 범위로 묶는다.
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final StatementTracker statementTracker;
+
+    public StatementBudgetFilter(StatementTracker statementTracker) {
+        this.statementTracker = statementTracker;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementScope scope = statementTracker.open(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementTracker.close(scope);
+        }
+    }
+}
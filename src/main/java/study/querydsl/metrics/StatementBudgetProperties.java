@@ -0,0 +1,24 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "sql.statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+    //요청/트랜잭션 하나에서 허용하는 select 수, 0 이면 제한 없음
+    private int maxStatements = 30;
+    //같은 모양의 select 가 이 횟수 이상이면 N+1 로 본다
+    private int repeatThreshold = 5;
+    private Mode mode = Mode.LOG;
+
+    public enum Mode {
+        //초과하면 요청/트랜잭션이 끝날 때 로그만 남긴다
+        LOG,
+        //예산을 넘는 순간 StatementBudgetExceededException
+        FAIL
+    }
+}
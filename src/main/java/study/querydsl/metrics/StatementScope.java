@@ -0,0 +1,74 @@
+package study.querydsl.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청(또는 트랜잭션) 하나에서 실행된 select 를 모양별로 센다.
+ */
+public class StatementScope {
+
+    private final String name;
+    private final int budget;
+    private final int repeatThreshold;
+    //중첩해서 열린 경우 바깥 범위, 닫을 때 되돌린다
+    private final StatementScope parent;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int selects;
+
+    StatementScope(String name, int budget, int repeatThreshold, StatementScope parent) {
+        this.name = name;
+        this.budget = budget;
+        this.repeatThreshold = repeatThreshold;
+        this.parent = parent;
+    }
+
+    void record(String shape) {
+        selects++;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    StatementScope getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSelects() {
+        return selects;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && selects > budget;
+    }
+
+    /**
+     * repeatThreshold 번 이상 반복된 select 모양과 횟수 (N+1 후보)
+     */
+    public Map<String, Integer> getRepeatedShapes() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count >= repeatThreshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder()
+                .append(name).append(": ").append(selects).append(" selects");
+        if (budget > 0) {
+            sb.append(" (budget ").append(budget).append(")");
+        }
+        getRepeatedShapes().forEach((shape, count) ->
+                sb.append("\n  repeated ").append(count).append("x: ").append(shape));
+        return sb.toString();
+    }
+}
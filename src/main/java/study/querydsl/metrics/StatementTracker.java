@@ -0,0 +1,120 @@
+package study.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 요청/트랜잭션 단위 select 예산과 N+1 감지
+ * Hibernate StatementInspector 로 select 를 세고, 리터럴과 in 목록을 지운 모양이 반복되면 N+1 후보로 보고한다.
+ * 시퀀스 조회(next value for)는 세지 않는다.
+ *
+ * 범위는 StatementBudgetFilter 가 여는 요청 범위가 우선이고, 없으면 현재 트랜잭션이 끝날 때까지를 한 범위로 본다.
+ * 테스트에서는 @MaxQueries 가 테스트 메서드 단위로 범위를 연다.
+ */
+@Slf4j
+@Component
+public class StatementTracker implements StatementInspector {
+
+    private static final ThreadLocal<StatementScope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StatementBudgetProperties properties;
+
+    public StatementTracker(StatementBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (!properties.isEnabled()) {
+            return sql;
+        }
+        String shape = shape(sql);
+        if (!shape.startsWith("select") || shape.contains("next value for") || shape.contains("nextval(")) {
+            return sql;
+        }
+        StatementScope scope = CURRENT.get();
+        if (scope == null) {
+            scope = transactionScope();
+        }
+        if (scope == null) {
+            return sql;
+        }
+        scope.record(shape);
+        if (scope.isOverBudget() && properties.getMode() == StatementBudgetProperties.Mode.FAIL) {
+            throw new StatementBudgetExceededException(scope.summary());
+        }
+        return sql;
+    }
+
+    /**
+     * 현재 스레드에 범위를 연다. 반환된 범위는 close(scope) 로 닫아야 한다.
+     */
+    public StatementScope open(String name) {
+        return open(name, properties.getMaxStatements());
+    }
+
+    public StatementScope open(String name, int budget) {
+        StatementScope scope = new StatementScope(name, budget, properties.getRepeatThreshold(), CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public void close(StatementScope scope) {
+        if (CURRENT.get() == scope) {
+            if (scope.getParent() != null) {
+                CURRENT.set(scope.getParent());
+            } else {
+                CURRENT.remove();
+            }
+        }
+        report(scope);
+    }
+
+    private StatementScope transactionScope() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        StatementScope scope = (StatementScope) TransactionSynchronizationManager.getResource(this);
+        if (scope == null) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            StatementScope created = new StatementScope(name == null ? "transaction" : name,
+                    properties.getMaxStatements(), properties.getRepeatThreshold(), null);
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StatementTracker.this);
+                    report(created);
+                }
+            });
+            scope = created;
+        }
+        return scope;
+    }
+
+    private void report(StatementScope scope) {
+        if (scope.isOverBudget() || !scope.getRepeatedShapes().isEmpty()) {
+            log.warn("statement budget: {}", scope.summary());
+        }
+    }
+
+    static String shape(String sql) {
+        String shape = COMMENT.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.readmodel;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * 현재 스레드의 세션이 flush 중인지 기록한다. (hibernate.session.events.auto 로 세션마다 생성)
+ * flush 중에 나가는 DML 은 엔티티 변경이라 엔티티 콜백으로 잡히고, 그 밖에서 나가는 DML 은 벌크/네이티브 쿼리다.
+ */
+public class FlushTracker implements SessionEventListener {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static boolean isFlushing() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    @Override
+    public void flushStart() {
+        DEPTH.get()[0]++;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        DEPTH.get()[0]--;
+    }
+
+    //JPQL 실행 전 자동 flush
+    @Override
+    public void partialFlushStart() {
+        DEPTH.get()[0]++;
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        DEPTH.get()[0]--;
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.readmodel;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//member.search.read-model=view 일 때만 읽기 모델을 유지한다
+@Configuration
+@ConditionalOnProperty(name = "member.search.read-model", havingValue = "view")
+public class MemberTeamViewConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer flushTrackerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, FlushTracker.class.getName());
+    }
+
+    @Bean
+    public MemberTeamViewStatementInspector memberTeamViewStatementInspector(ObjectProvider<MemberTeamViewMaintainer> maintainer) {
+        return new MemberTeamViewStatementInspector(maintainer);
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.readmodel;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * Member/Team 변경(changeTeam 포함)을 MemberTeamViewMaintainer 에 알린다.
+ * flush 시점에 불리므로 id 가 정해져 있다. 읽기 모델을 쓰지 않으면 (maintainer 빈이 없으면) 아무것도 안 한다.
+ */
+public class MemberTeamViewListener {
+
+    private final ObjectProvider<MemberTeamViewMaintainer> maintainer;
+
+    public MemberTeamViewListener(ObjectProvider<MemberTeamViewMaintainer> maintainer) {
+        this.maintainer = maintainer;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        MemberTeamViewMaintainer viewMaintainer = maintainer.getIfAvailable();
+        if (viewMaintainer == null) {
+            return;
+        }
+        if (entity instanceof Member member) {
+            viewMaintainer.memberChanged(member.getId());
+        } else if (entity instanceof Team team) {
+            viewMaintainer.teamChanged(team.getId());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package study.querydsl.readmodel;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * member_team_view 읽기 모델 유지
+ * 트랜잭션 동안 바뀐 member id / team id 를 모아 두었다가 커밋 직전에 해당 행만 다시 만든다.
+ * member 는 지우고 member + team 조인 결과로 다시 넣고, team 은 이름만 고친다.
+ * 같은 트랜잭션에서 커밋되므로 엔티티 변경은 읽기 모델과 원본이 함께 보이거나 함께 안 보인다.
+ * 벌크 DML 은 어떤 행인지 모르므로 커밋 뒤 별도 트랜잭션에서 원본과 다른 행만 고친다 (reconcile).
+ * 이 작업은 member/team/member_team_view 를 한 번씩 훑는 비용이 들고, 끝날 때까지 읽기 모델은 벌크 DML 이전 값을 보여 준다.
+ * 커밋이 몰려도 예약은 하나로 합쳐진다.
+ * Spring 트랜잭션 밖의 변경은 반영하지 않는다. 그때는 rebuild() 를 호출한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.search.read-model", havingValue = "view")
+public class MemberTeamViewMaintainer implements AutoCloseable {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private static final String INSERT_SELECT = "insert into member_team_view (member_id, username, age, team_id, team_name)"
+            + " select m.member_id, m.username, m.age, m.team_id, t.name from member m left join team t on t.team_id = m.team_id";
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    //벌크 DML 뒤 정합 작업은 커밋 후 이 스레드 하나에서 차례로 돈다
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-team-view-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconcileScheduled = new AtomicBoolean();
+    private volatile CompletableFuture<Long> lastReconcile = CompletableFuture.completedFuture(0L);
+
+    public MemberTeamViewMaintainer(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void memberChanged(Long memberId) {
+        Pending pending = pending();
+        if (pending != null) {
+            pending.memberIds.add(memberId);
+        }
+    }
+
+    public void teamChanged(Long teamId) {
+        Pending pending = pending();
+        if (pending != null) {
+            pending.teamIds.add(teamId);
+        }
+    }
+
+    public void bulkModified() {
+        Pending pending = pending();
+        if (pending != null) {
+            pending.bulkModified = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long rows = transactionTemplate.execute(status -> reconcile());
+        log.info("member_team_view reconciled: {} rows changed", rows);
+    }
+
+    /**
+     * 가장 최근에 예약된 정합 작업 (고친 행 수). 벌크 DML 직후 읽기 모델을 읽어야 하는 쪽이 기다릴 때 쓴다.
+     */
+    public CompletableFuture<Long> pendingReconcile() {
+        return lastReconcile;
+    }
+
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (created.bulkModified) {
+                        scheduleReconcile();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberTeamViewMaintainer.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void apply(Pending pending) {
+        //커밋 flush 는 이 다음이라 남은 변경을 먼저 내보낸다. 이때 불리는 콜백도 pending 에 쌓인다
+        em.flush();
+        for (List<Long> ids : chunks(pending.memberIds)) {
+            lockTeamsOf(ids);
+            execute("delete from member_team_view where member_id in (:ids)", ids);
+            execute(INSERT_SELECT + " where m.member_id in (:ids)", ids);
+        }
+        for (List<Long> ids : chunks(pending.teamIds)) {
+            execute("update member_team_view v set team_name = (select t.name from team t where t.team_id = v.team_id)"
+                    + " where v.team_id in (:ids)", ids);
+        }
+    }
+
+    /**
+     * 다시 넣을 회원이 속한 팀 행을 잠근다.
+     * 잠그지 않으면 insert-select 가 읽은 팀 이름을 다른 트랜잭션이 바꾸고, 그쪽의 update 는 아직 커밋 안 된 이 행을 못 봐서
+     * 두 트랜잭션이 모두 커밋된 뒤에도 team_name 이 옛 이름으로 남는다.
+     * 잠그면 이름 변경(team update)이 이 트랜잭션 커밋까지 기다리거나, 이쪽이 그 커밋 뒤의 이름을 읽는다. 교착을 피하려고 id 순으로 잠근다.
+     */
+    private void lockTeamsOf(List<Long> memberIds) {
+        @SuppressWarnings("unchecked")
+        List<Number> teamIds = nativeQuery("select distinct m.team_id from member m where m.member_id in (:ids) and m.team_id is not null")
+                .setParameter("ids", memberIds)
+                .getResultList();
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        nativeQuery("select t.team_id from team t where t.team_id in (:ids) order by t.team_id for update")
+                .setParameter("ids", teamIds.stream().map(Number::longValue).toList())
+                .getResultList();
+    }
+
+    /**
+     * 원본(member + team)과 다른 행만 고친다. 벌크 DML 뒤와 기동 시에 쓴다.
+     * member/team/member_team_view 를 한 번씩 훑지만 쓰기와 행 잠금은 달라진 행에만 걸린다.
+     */
+    private long reconcile() {
+        long deleted = nativeQuery("delete from member_team_view v"
+                + " where not exists (select 1 from member m where m.member_id = v.member_id)").executeUpdate();
+        long updated = nativeQuery("update member_team_view v set (username, age, team_id, team_name) ="
+                + " (select m.username, m.age, m.team_id, t.name from member m left join team t on t.team_id = m.team_id"
+                + " where m.member_id = v.member_id)"
+                + " where exists (select 1 from member m left join team t on t.team_id = m.team_id where m.member_id = v.member_id"
+                + " and (m.username is distinct from v.username or m.age <> v.age"
+                + " or m.team_id is distinct from v.team_id or t.name is distinct from v.team_name))").executeUpdate();
+        long inserted = nativeQuery(INSERT_SELECT
+                + " where not exists (select 1 from member_team_view v where v.member_id = m.member_id)").executeUpdate();
+        return deleted + updated + inserted;
+    }
+
+    //벌크 DML 이 커밋되면 정합 작업을 하나만 예약한다. 이미 예약돼 있으면 그 작업이 이번 변경까지 반영한다
+    private void scheduleReconcile() {
+        if (!reconcileScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        lastReconcile = CompletableFuture.supplyAsync(() -> {
+            reconcileScheduled.set(false);
+            try {
+                return transactionTemplate.execute(status -> reconcile());
+            } catch (RuntimeException e) {
+                //동시에 들어온 증분 반영과 같은 행을 건드려 실패할 수 있다. 다음 벌크 DML 이나 rebuild() 때 다시 맞춘다
+                log.warn("member_team_view reconcile failed", e);
+                throw e;
+            }
+        }, reconcileExecutor);
+    }
+
+    private void execute(String sql, List<Long> ids) {
+        nativeQuery(sql)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    //동기화 대상을 읽기 모델로 좁혀서 다른 엔티티의 2차 캐시를 비우지 않게 한다
+    private NativeQuery<?> nativeQuery(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("member_team_view");
+    }
+
+    @Override
+    public void close() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + IN_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    private static class Pending {
+        private final Set<Long> memberIds = new LinkedHashSet<>();
+        private final Set<Long> teamIds = new LinkedHashSet<>();
+        private boolean bulkModified;
+    }
+}
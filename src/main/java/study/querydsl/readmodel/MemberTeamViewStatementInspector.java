@@ -0,0 +1,32 @@
+package study.querydsl.readmodel;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.cache.DmlStatementInspector;
+
+import java.util.Set;
+
+/**
+ * flush 밖에서 member/team 에 나가는 DML (Querydsl/JPQL 벌크 update, delete, 네이티브 쿼리)을 찾는다.
+ * 어떤 행이 바뀌었는지 알 수 없으므로 커밋 뒤에 원본과 다른 행을 찾아 고친다. (MemberTeamViewMaintainer 의 reconcile)
+ */
+public class MemberTeamViewStatementInspector implements StatementInspector {
+
+    private static final Set<String> SOURCE_TABLES = Set.of("member", "team");
+
+    //maintainer 가 EntityManager 에 의존하므로 호출 시점에 찾는다
+    private final ObjectProvider<MemberTeamViewMaintainer> maintainer;
+
+    public MemberTeamViewStatementInspector(ObjectProvider<MemberTeamViewMaintainer> maintainer) {
+        this.maintainer = maintainer;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String table = DmlStatementInspector.modifiedTable(sql);
+        if (table != null && SOURCE_TABLES.contains(table) && !FlushTracker.isFlushing()) {
+            maintainer.ifAvailable(MemberTeamViewMaintainer::bulkModified);
+        }
+        return sql;
+    }
+}
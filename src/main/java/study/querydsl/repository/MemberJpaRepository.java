@@ -3,34 +3,56 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import study.querydsl.cache.SearchCacheKey;
+import study.querydsl.cache.SearchResultCache;
+import study.querydsl.cache.TeamNameIndex;
 import study.querydsl.dto.MemberSearchCndition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.deadline.RequestDeadline;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.QueryShapeProvider;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
-public class MemberJpaRepository {
+@Transactional(readOnly = true)
+public class MemberJpaRepository implements QueryShapeProvider {
+    private static final int EXPORT_FETCH_SIZE = 500;
+    //스트리밍 중 마감 시각 확인 주기 (행 수)
+    private static final int EXPORT_DEADLINE_CHECK_INTERVAL = 1000;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final TeamNameIndex teamNameIndex;
+    private final SearchResultCache searchResultCache;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, TeamNameIndex teamNameIndex, SearchResultCache searchResultCache) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.teamNameIndex = teamNameIndex;
+        this.searchResultCache = searchResultCache;
     }
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
@@ -61,15 +83,26 @@ public class MemberJpaRepository {
                 .selectFrom(member)
                 .fetch();
     }
+    //스냅샷 없는 읽기 전용 엔티티, 수정해도 반영되지 않는다
+    public List<Member> findAll_QuerydslReadOnly() {
+        return queryFactory
+                .selectFrom(member)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
+    }
 
     public List<MemberTeamDto> searchByBuilder(MemberSearchCndition condition) {
+        return searchByBuilderQuery(condition)
+                .fetch();
+    }
 
+    private JPAQuery<MemberTeamDto> searchByBuilderQuery(MemberSearchCndition condition) {
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(condition.getUsername())) {
             builder.and(member.username.eq(condition.getUsername()));
         }
         if (hasText(condition.getTeamName())){
-            builder.and(team.name.eq(condition.getTeamName()));
+            builder.and(member.team.id.in(teamNameIndex.idsOf(condition.getTeamName())));
         }
         if (condition.getAgeGoe() != null){
             builder.and(member.age.goe(condition.getAgeGoe()));
@@ -87,13 +120,55 @@ public class MemberJpaRepository {
                         team.name.as("teamName")))
                 .from(member)
                 .leftJoin(member.team,team)
-                .where(builder)
-                .fetch();
+                .where(builder);
     }
 
 
+    //MemberRepositoryImpl.search 와 같은 쿼리라 결과 캐시 키를 공유한다
     public List<MemberTeamDto> search(MemberSearchCndition condition) {
+        return searchResultCache.get(SearchCacheKey.of("search", condition), () -> searchQuery(condition));
+    }
+
+    //결과는 SearchResultCache 에만 캐시한다. member/team 테이블이 변경되면 무효화된다
+    private List<MemberTeamDto> searchQuery(MemberSearchCndition condition) {
+        return memberTeamQuery(condition)
+                .fetch();
+    }
+    //결과를 List로 모으지 않고 한 행씩 넘긴다. forward-only 스트림 + fetch size로 힙 사용량이 결과 크기와 무관하다
+    //DTO 프로젝션이라 영속성 컨텍스트에 쌓이는 엔티티가 없으므로 clear 하지 않는다 (호출한 쪽 엔티티를 준영속으로 만들지 않게)
+    public long exportSearch(MemberSearchCndition condition, Consumer<MemberTeamDto> action) {
+        try (Stream<MemberTeamDto> stream = exportQuery(condition)
+                .stream()) {
+            long count = 0;
+            //쿼리 타임아웃은 실행까지만 걸리므로 읽는 도중에는 직접 확인한다. 클라이언트가 끊기면 action 의 write 가 실패하면서 스트림이 닫힌다
+            RequestDeadline deadline = RequestDeadline.current();
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % EXPORT_DEADLINE_CHECK_INTERVAL == 0 && deadline != null) {
+                    deadline.checkNotExpired();
+                }
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public List<JPAQuery<?>> queryShapes(MemberSearchCndition condition) {
+        return List.of(
+                memberTeamQuery(condition),
+                searchByBuilderQuery(condition),
+                exportQuery(condition));
+    }
+
+    private JPAQuery<MemberTeamDto> exportQuery(MemberSearchCndition condition) {
+        return memberTeamQuery(condition)
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
 
+    private JPAQuery<MemberTeamDto> memberTeamQuery(MemberSearchCndition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -108,15 +183,16 @@ public class MemberJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                );
     }
+
     private BooleanExpression usernameEq(String username) {
         return isEmpty(username)? null : member.username.eq(username);
     }
 
+    //팀 이름을 id 로 바꿔서 team 조인 없이 FK 로 거른다. 없는 이름이면 빈 in 절 (1 = 2)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(teamNameIndex.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
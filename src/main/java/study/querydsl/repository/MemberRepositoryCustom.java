@@ -2,6 +2,11 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.CountedPage;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberKeysetCursor;
 import study.querydsl.dto.MemberSearchCndition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -9,7 +14,15 @@ import study.querydsl.entity.Member;
 import java.util.List;
 
 public interface MemberRepositoryCustom {
+    //searchAll 한 번에 받는 조건 수 상한. 조건마다 결과를 나누는 비트 하나(long)를 쓴다
+    int MAX_SEARCH_ALL_CONDITIONS = 50;
+
     List<MemberTeamDto> search(MemberSearchCndition condition);
+    List<List<MemberTeamDto>> searchAll(List<MemberSearchCndition> conditions);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCndition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCndition condition, Pageable pageable);
+    CountedPage<MemberTeamDto> searchPageComplex(MemberSearchCndition condition, Pageable pageable, CountMode countMode);
+    Page<MemberTeamDto> searchPageParallel(MemberSearchCndition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCndition condition, Pageable pageable);
+    CursorSlice<MemberTeamDto> searchKeyset(MemberSearchCndition condition, MemberKeysetCursor cursor, int size);
 }
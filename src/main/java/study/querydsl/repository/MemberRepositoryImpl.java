@@ -1,67 +1,151 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.SearchCacheKey;
+import study.querydsl.cache.SearchResultCache;
+import study.querydsl.cache.TeamNameIndex;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.CountedPage;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberKeysetCursor;
 import study.querydsl.dto.MemberSearchCndition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CountQueryBuilder;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.MemberCountEstimator;
+import study.querydsl.repository.support.ParallelPagination;
+import study.querydsl.repository.support.QueryShapeProvider;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberTeamView.memberTeamView;
 import static study.querydsl.entity.QTeam.team;
 
 
-public class MemberRepositoryImpl implements MemberRepositoryCustom{
+@Transactional(readOnly = true)
+public class MemberRepositoryImpl implements MemberRepositoryCustom, QueryShapeProvider {
 
     private final JPAQueryFactory jpaQueryFactory;
+    private final ParallelPagination parallelPagination;
+    private final TeamNameIndex teamNameIndex;
+    private final SearchResultCache searchResultCache;
+    private final MemberCountEstimator memberCountEstimator;
+    //CountMode.CAPPED 에서 세는 상한
+    private final long countCap;
+    //member.search.read-model=view 면 member_team_view 에서 조인 없이 읽는다
+    private final boolean readFromView;
+    private final NumberPath<Long> idPath;
+    private final NumberPath<Integer> agePath;
+    private final StringPath usernamePath;
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.jpaQueryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(EntityManager em, ParallelPagination parallelPagination,
+                                TeamNameIndex teamNameIndex, SearchResultCache searchResultCache,
+                                MemberCountEstimator memberCountEstimator,
+                                @Value("${member.search.count.cap:10000}") long countCap,
+                                @Value("${member.search.read-model:join}") String readModel) {
+        this.jpaQueryFactory = new DeadlineJPAQueryFactory(em);
+        this.parallelPagination = parallelPagination;
+        this.teamNameIndex = teamNameIndex;
+        this.searchResultCache = searchResultCache;
+        this.memberCountEstimator = memberCountEstimator;
+        this.countCap = countCap;
+        this.readFromView = "view".equals(readModel);
+        this.idPath = readFromView ? memberTeamView.memberId : member.id;
+        this.agePath = readFromView ? memberTeamView.age : member.age;
+        this.usernamePath = readFromView ? memberTeamView.username : member.username;
     }
 
-    @Override
+    @Override //같은 조건 반복 조회는 결과 캐시에서
     public List<MemberTeamDto> search(MemberSearchCndition condition) {
+        return searchResultCache.get(SearchCacheKey.of("search", condition), () -> searchQuery(condition));
+    }
 
-        return jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team,team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+    private List<MemberTeamDto> searchQuery(MemberSearchCndition condition) {
+        return memberTeamQuery(condition)
                 .fetch();
     }
 
+    @Override //조건마다 따로 조회하지 않고 OR 로 합친 쿼리 한 번에 가져와서 조건별로 다시 나눈다, 입력 순서대로 반환
+    public List<List<MemberTeamDto>> searchAll(List<MemberSearchCndition> conditions) {
+        if (conditions.size() > MAX_SEARCH_ALL_CONDITIONS) {
+            throw new IllegalArgumentException("조건은 최대 " + MAX_SEARCH_ALL_CONDITIONS + "개까지 조회할 수 있습니다: " + conditions.size());
+        }
+        List<List<MemberTeamDto>> result = new ArrayList<>(conditions.size());
+        List<MemberTeamDto> unfiltered = null;
+        BooleanBuilder anyCondition = new BooleanBuilder();
+        //조건 i 에 맞는 행은 i 번째 비트를 켠다. 어느 조건에 맞는지는 DB 가 where 와 같은 식으로 판단한다
+        NumberExpression<Long> matchedBits = null;
+        for (int i = 0; i < conditions.size(); i++) {
+            BooleanBuilder each = searchPredicate(conditions.get(i));
+            //조건 없는 항목은 OR 에 넣으면 전체 조회가 되므로 따로 한 번만 조회한다
+            if (!each.hasValue()) {
+                if (unfiltered == null) {
+                    unfiltered = memberTeamQuery(conditions.get(i))
+                            .orderBy(idPath.asc())
+                            .fetch();
+                }
+                result.add(unfiltered);
+                continue;
+            }
+            result.add(new ArrayList<>());
+            anyCondition.or(each);
+            NumberExpression<Long> bit = new CaseBuilder()
+                    .when(each).then(longLiteral(1L << i))
+                    .otherwise(longLiteral(0L));
+            matchedBits = matchedBits == null ? bit : matchedBits.add(bit);
+        }
+        if (matchedBits == null) {
+            return result;
+        }
+
+        QMemberTeamDto dto = memberTeamDto();
+        List<Tuple> rows = selectMemberTeam()
+                .select(dto, matchedBits)
+                .where(anyCondition)
+                .orderBy(idPath.asc())
+                .fetch();
+        for (Tuple row : rows) {
+            MemberTeamDto matched = row.get(dto);
+            long bits = row.get(matchedBits);
+            while (bits != 0) {
+                result.get(Long.numberOfTrailingZeros(bits)).add(matched);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCndition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> result = jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+        QueryResults<MemberTeamDto> result = selectMemberTeam()
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
@@ -79,56 +163,233 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     }
 
-    @Override //0페이지에 데이터가 다 들어있을 때 count 구문은 실행 안함, 데이터 많을 때
+    @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCndition condition, Pageable pageable) {
-        List<MemberTeamDto> content = jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
+        return searchPageComplex(condition, pageable, CountMode.EXACT);
+    }
+
+    @Override
+    public CountedPage<MemberTeamDto> searchPageComplex(MemberSearchCndition condition, Pageable pageable, CountMode countMode) {
+        return searchResultCache.get(SearchCacheKey.of("searchPageComplex:" + countMode, condition, pageable),
+                () -> searchPageComplexQuery(condition, pageable, countMode));
+    }
+
+    //0페이지에 데이터가 다 들어있을 때 count 구문은 실행 안함, 데이터 많을 때
+    private CountedPage<MemberTeamDto> searchPageComplexQuery(MemberSearchCndition condition, Pageable pageable, CountMode countMode) {
+        List<MemberTeamDto> content = memberTeamQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        //마지막 페이지나 끝 페이지는 호출 안함, teamName 도 FK 로 거르므로 team 조인은 빠진다
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        //추정할 수 없는 트랜잭션(쓰기)이면 정확히 세고, 응답에도 실제로 쓴 방식을 싣는다
+        CountMode usedMode = countMode == CountMode.ESTIMATED && !memberCountEstimator.canEstimate() ? CountMode.EXACT : countMode;
+        AtomicBoolean capped = new AtomicBoolean();
+        LongSupplier total = switch (usedMode) {
+            case EXACT -> countQuery::fetchOne;
+            case CAPPED -> () -> cappedCount(condition, countQuery, capped);
+            case ESTIMATED -> () -> memberCountEstimator.estimate(condition, pageable, content.size());
+        };
+        Page<MemberTeamDto> page = PageableExecutionUtils.getPage(content, pageable, total);
+        return new CountedPage<>(page, usedMode, capped.get());
+    }
+
+    //JPQL 은 서브쿼리에 limit 을 걸 수 없어서, cap 번째 다음 행이 있는지 먼저 보고 없을 때만 센다. (어느 쪽이든 cap 행 이내로 읽는다)
+    private long cappedCount(MemberSearchCndition condition, JPAQuery<Long> countQuery, AtomicBoolean capped) {
+        Long beyondCap = cappedProbeQuery(condition)
+                .offset(countCap)
+                .limit(1)
+                .fetchFirst();
+        if (beyondCap != null) {
+            capped.set(true);
+            return countCap;
+        }
+        return countQuery.fetchOne();
+    }
+
+    @Override //content, count 쿼리를 각자 커넥션에서 동시에 실행, 호출 스레드는 커넥션을 잡지 않는다
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<MemberTeamDto> searchPageParallel(MemberSearchCndition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> contentQuery = memberTeamQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        return parallelPagination.getPage(pageable, contentQuery::fetch, countQuery::fetchOne);
+    }
+
+    @Override //count 쿼리 없이 limit + 1 개를 읽어서 다음 페이지 여부만 판단, 무한 스크롤용
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCndition condition, Pageable pageable) {
+        List<MemberTeamDto> content = memberTeamQuery(condition)
+                .orderBy(idPath.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override //offset 대신 마지막 정렬 키 이후부터 읽는다. size + 1개를 조회해서 다음 페이지 여부 판단
+    public CursorSlice<MemberTeamDto> searchKeyset(MemberSearchCndition condition, MemberKeysetCursor cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size 는 1 이상이어야 합니다: " + size);
+        }
+        List<MemberTeamDto> content = keysetQuery(condition, cursor)
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        String nextCursor = hasNext ? cursor.next(content.get(content.size() - 1)).encode() : null;
+        return new CursorSlice<>(content, nextCursor, hasNext);
+    }
+
+    @Override
+    public List<JPAQuery<?>> queryShapes(MemberSearchCndition condition) {
+        //커서 값은 바인드 파라미터라 모양에는 영향이 없다
+        MemberTeamDto last = new MemberTeamDto(0L, null, 0, null, null);
+        MemberKeysetCursor firstById = MemberKeysetCursor.first(MemberKeysetCursor.SortKey.ID);
+        MemberKeysetCursor firstByAge = MemberKeysetCursor.first(MemberKeysetCursor.SortKey.AGE);
+        return List.of(
+                memberTeamQuery(condition),
+                countQuery(condition),
+                cappedProbeQuery(condition),
+                memberTeamQuery(condition).orderBy(idPath.asc()),
+                keysetQuery(condition, firstById),
+                keysetQuery(condition, firstByAge),
+                keysetQuery(condition, firstById.next(last)),
+                keysetQuery(condition, firstByAge.next(last)));
+    }
+
+    //search, searchPageComplex, searchPageParallel, searchSlice, searchKeyset 이 같이 쓰는 content 쿼리
+    private JPAQuery<MemberTeamDto> memberTeamQuery(MemberSearchCndition condition) {
+        return selectMemberTeam()
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private JPAQuery<MemberTeamDto> selectMemberTeam() {
+        JPAQuery<MemberTeamDto> query = jpaQueryFactory.select(memberTeamDto());
+        if (readFromView) {
+            return query.from(memberTeamView);
+        }
+        return query
                 .from(member)
-                .leftJoin(member.team, team)
+                .leftJoin(member.team, team);
+    }
+
+    private QMemberTeamDto memberTeamDto() {
+        if (readFromView) {
+            return new QMemberTeamDto(
+                    memberTeamView.memberId,
+                    memberTeamView.username,
+                    memberTeamView.age,
+                    memberTeamView.teamId,
+                    memberTeamView.teamName);
+        }
+        return new QMemberTeamDto(
+                member.id.as("memberId"),
+                member.username,
+                member.age,
+                team.id.as("teamId"),
+                team.name.as("teamName"));
+    }
+
+    private BooleanBuilder searchPredicate(MemberSearchCndition condition) {
+        return new BooleanBuilder()
+                .and(usernameEq(condition.getUsername()))
+                .and(teamNameEq(condition.getTeamName()))
+                .and(ageGoe(condition.getAgeGoe()))
+                .and(ageLoe(condition.getAgeLoe()));
+    }
+
+    //select 절의 상수는 파라미터로 바인딩하면 타입을 정하지 못하므로 JPQL 리터럴로 넣는다
+    private static NumberExpression<Long> longLiteral(long value) {
+        return Expressions.numberTemplate(Long.class, value + "L");
+    }
+
+    private JPAQuery<MemberTeamDto> keysetQuery(MemberSearchCndition condition, MemberKeysetCursor cursor) {
+        return memberTeamQuery(condition)
+                .where(afterCursor(cursor))
+                .orderBy(keysetOrder(cursor));
+    }
+
+    private JPAQuery<Long> countQuery(MemberSearchCndition condition) {
+        CountQueryBuilder countQuery = readFromView
+                ? new CountQueryBuilder(jpaQueryFactory, memberTeamView, memberTeamView.memberId)
+                : new CountQueryBuilder(jpaQueryFactory, member, member.id).leftJoin(member.team, team);
+        return countQuery
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .build();
+    }
 
-        //마지막 페이지나 끝 페이지는 호출 안함
-        JPAQuery<Member> countQuery = jpaQueryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
+    private JPAQuery<Long> cappedProbeQuery(MemberSearchCndition condition) {
+        return jpaQueryFactory
+                .select(idPath)
+                .from(readFromView ? memberTeamView : member)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 );
+    }
+
+    private BooleanExpression afterCursor(MemberKeysetCursor cursor) {
+        if (cursor.isFirst()) {
+            return null;
+        }
+        if (cursor.getSortKey() == MemberKeysetCursor.SortKey.AGE) {
+            return agePath.gt(cursor.getAge())
+                    .or(agePath.eq(cursor.getAge()).and(idPath.gt(cursor.getMemberId())));
+        }
+        return idPath.gt(cursor.getMemberId());
+    }
 
-        return PageableExecutionUtils.getPage(content,pageable,() -> countQuery.fetchCount());
+    private OrderSpecifier<?>[] keysetOrder(MemberKeysetCursor cursor) {
+        if (cursor.getSortKey() == MemberKeysetCursor.SortKey.AGE) {
+            return new OrderSpecifier<?>[]{agePath.asc(), idPath.asc()};
+        }
+        return new OrderSpecifier<?>[]{idPath.asc()};
     }
 
     private BooleanExpression usernameEq(String username) {
-        return isEmpty(username)? null : member.username.eq(username);
+        return isEmpty(username)? null : usernamePath.eq(username);
     }
 
+    //팀 이름을 id 로 바꿔서 team 조인 없이 FK 로 거른다. 없는 이름이면 빈 in 절 (1 = 2)
+    //읽기 모델에는 팀 이름이 있으므로 바로 비교
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        if (!hasText(teamName)) {
+            return null;
+        }
+        return readFromView ? memberTeamView.teamName.eq(teamName) : member.team.id.in(teamNameIndex.idsOf(teamName));
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+        return ageGoe != null ? agePath.goe(ageGoe) : null;
     }
 
     private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return ageLoe != null ? agePath.loe(ageLoe) : null;
     }
 
 }
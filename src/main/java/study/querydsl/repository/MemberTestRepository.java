@@ -1,25 +1,40 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TeamNameIndex;
 import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.QueryShapeProvider;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.springframework.util.StringUtils.hasText;
 import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
-public class MemberTestRepository extends Querydsl4RepositorySupport {
+@Repository
+@Transactional(readOnly = true)
+public class MemberTestRepository extends Querydsl4RepositorySupport implements QueryShapeProvider {
+    private static final int SCAN_CHUNK_SIZE = 1000;
 
-    public MemberTestRepository(Class<?> domainClass) {
-        super(domainClass);
+    private final TeamNameIndex teamNameIndex;
+
+    public MemberTestRepository(TeamNameIndex teamNameIndex) {
+        super(Member.class);
+        this.teamNameIndex = teamNameIndex;
     }
     public List<Member> basicSelect() {
         return select(member)
@@ -32,6 +47,21 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 .fetch();
     }
 
+    public List<Member> basicSelectReadOnly() {
+        return readOnly(selectFrom(member))
+                .fetch();
+    }
+
+    public List<Member> basicSelectInReadOnlySession() {
+        return withReadOnlySession(() -> selectFrom(member)
+                .fetch());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) //StatelessSession 이 자기 커넥션을 쓰므로 트랜잭션 커넥션을 잡지 않는다
+    public long scanMembers(Predicate where, Consumer<Member> action) {
+        return scanStateless(member, member.id, where, SCAN_CHUNK_SIZE, action);
+    }
+
     public Page<Member> searchPageByApplyPage(MemberSearchCndition condition, Pageable pageable) {
         JPAQuery<Member> query = selectFrom(member)
                 .where(usernameEq(condition.getUsername()),
@@ -68,10 +98,29 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())),
 
-                countQuery -> countQuery
-                .select(member.id)
+                countQuery(member, member.id)
+                .leftJoin(member.team,team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+        );
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Page<MemberTeamDto> applyPaginationParallel(MemberSearchCndition condition, Pageable pageable){
+        return applyPaginationParallel(pageable,
+                new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name),
+                contentquery -> contentquery
                 .from(member)
                 .leftJoin(member.team,team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())),
+
+                countQuery(member, member.id)
+                .leftJoin(member.team,team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
@@ -79,12 +128,37 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         );
     }
 
+    //fetchCount 로 세는 count 쿼리는 Querydsl 이 실행 시점에 만들므로 제외
+    @Override
+    public List<JPAQuery<?>> queryShapes(MemberSearchCndition condition) {
+        return List.of(
+                selectFrom(member)
+                        .where(usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())),
+                selectFrom(member)
+                        .leftJoin(member.team,team)
+                        .where(usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())),
+                countQuery(member, member.id)
+                        .leftJoin(member.team,team)
+                        .where(usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe()))
+                        .build());
+    }
+
     private BooleanExpression usernameEq(String username) {
         return isEmpty(username)? null : member.username.eq(username);
     }
 
+    //팀 이름을 id 로 바꿔서 team 조인 없이 FK 로 거른다. 없는 이름이면 빈 in 절 (1 = 2)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName) ? member.team.id.in(teamNameIndex.idsOf(teamName)) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
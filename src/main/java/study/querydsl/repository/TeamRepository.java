@@ -0,0 +1,83 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.TeamDto;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@Transactional(readOnly = true)
+public class TeamRepository extends Querydsl4RepositorySupport {
+
+    public TeamRepository() {
+        super(Team.class);
+    }
+
+    /**
+     * 컬렉션 fetch join 에 페이징을 걸면 메모리에서 페이징(HHH000104)하므로 두 번에 나눠 조회한다.
+     * 1. team id 만 페이징 (+ count)
+     * 2. 그 id 들의 team 을 members 와 함께 in 쿼리 한 번으로 fetch join, 1번 순서대로 정렬
+     */
+    public Page<TeamDto> searchTeamsWithMembers(String teamName, Pageable pageable) {
+        //정렬이 없으면 id 순으로 고정해야 페이지가 겹치지 않는다
+        Pageable ordered = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+
+        Page<Long> ids = applyPagination(ordered,
+                query -> query
+                        .select(team.id)
+                        .from(team)
+                        .where(teamNameEq(teamName)),
+                countQuery(team, team.id)
+                        .where(teamNameEq(teamName)));
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ordered, ids.getTotalElements());
+        }
+
+        //Hibernate 6 는 컬렉션 fetch join 결과의 중복 root 를 알아서 제거한다
+        Map<Long, Team> teams = selectFrom(team)
+                .leftJoin(team.members, member).fetchJoin()
+                .where(team.id.in(ids.getContent()))
+                .orderBy(member.id.asc())
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(Team::getId, Function.identity()));
+
+        //두 조회 사이에 삭제된 팀은 빼고, 1단계 id 순서를 유지한다
+        List<TeamDto> content = ids.getContent().stream()
+                .map(teams::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    private TeamDto toDto(Team team) {
+        List<MemberDto> members = team.getMembers().stream()
+                .map(m -> new MemberDto(m.getUsername(), m.getAge()))
+                .toList();
+        return new TeamDto(team.getId(), team.getName(), members);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+}
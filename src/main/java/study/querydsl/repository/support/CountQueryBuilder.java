@@ -0,0 +1,151 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 페이징용 count 쿼리 빌더
+ * 엔티티를 조회하지 않고 식별자만 count 하고, where 조건에서 참조하지 않는 to-one left join 은 제거한다.
+ * left join 된 to-one 연관관계는 행 수를 바꾸지 못하므로 빼도 결과가 같다. inner join 은 필터 역할을 하므로 항상 유지한다.
+ */
+public class CountQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityPath<?> from;
+    private final SimpleExpression<?> countTarget;
+    private final List<JoinSpec> joins = new ArrayList<>();
+    private final List<Predicate> where = new ArrayList<>();
+
+    public CountQueryBuilder(JPAQueryFactory queryFactory, EntityPath<?> from, SimpleExpression<?> countTarget) {
+        this.queryFactory = queryFactory;
+        this.from = from;
+        this.countTarget = countTarget;
+    }
+
+    public <P> CountQueryBuilder join(EntityPath<P> target, Path<P> alias) {
+        joins.add(new JoinSpec(target, alias, true));
+        return this;
+    }
+
+    public <P> CountQueryBuilder leftJoin(EntityPath<P> target, Path<P> alias) {
+        joins.add(new JoinSpec(target, alias, false));
+        return this;
+    }
+
+    public CountQueryBuilder where(Predicate... predicates) {
+        for (Predicate predicate : predicates) {
+            if (predicate != null) {
+                where.add(predicate);
+            }
+        }
+        return this;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JPAQuery<Long> build() {
+        Set<Path<?>> referenced = new HashSet<>();
+        for (Predicate predicate : where) {
+            predicate.accept(ReferencedRootCollector.INSTANCE, referenced);
+        }
+
+        //뒤에서부터 보면서 필요한 조인이 의존하는 앞쪽 조인도 살린다
+        List<JoinSpec> required = new ArrayList<>();
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinSpec join = joins.get(i);
+            if (join.inner || referenced.contains(join.alias)) {
+                required.add(0, join);
+                referenced.add(join.target.getRoot());
+            }
+        }
+
+        JPAQuery<Long> query = queryFactory
+                .select(countTarget.count())
+                .from(from);
+        for (JoinSpec join : required) {
+            if (join.inner) {
+                query.join((EntityPath) join.target, (Path) join.alias);
+            } else {
+                query.leftJoin((EntityPath) join.target, (Path) join.alias);
+            }
+        }
+        return query.where(where.toArray(new Predicate[0]));
+    }
+
+    private static class JoinSpec {
+        private final EntityPath<?> target;
+        private final Path<?> alias;
+        private final boolean inner;
+
+        private JoinSpec(EntityPath<?> target, Path<?> alias, boolean inner) {
+            this.target = target;
+            this.alias = alias;
+            this.inner = inner;
+        }
+    }
+
+    /**
+     * 식에서 참조하는 모든 경로의 root(별칭)를 모은다.
+     */
+    private static class ReferencedRootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        private static final ReferencedRootCollector INSTANCE = new ReferencedRootCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> context) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> context) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> context) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> context) {
+            context.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> context) {
+            Predicate subWhere = expr.getMetadata().getWhere();
+            if (subWhere != null) {
+                subWhere.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> context) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression<?> argExpr) {
+                    argExpr.accept(this, context);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.SpecHints;
+import study.querydsl.deadline.RequestDeadline;
+
+/**
+ * 요청 마감 시각을 따르는 JPAQueryFactory
+ * 쿼리를 만들 때 현재 스레드의 RequestDeadline 을 잡아 두고, 실행 직전에 남은 시간을 jakarta.persistence.query.timeout 힌트로 넣는다.
+ * 이미 지났으면 쿼리를 보내지 않고 DeadlineExceededException, 실행 중에 지나면 드라이버가 statement 를 취소한다.
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager) {
+        super(entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(entityManager, RequestDeadline.current());
+    }
+
+    private static class DeadlineJPAQuery<T> extends JPAQuery<T> {
+
+        private final RequestDeadline deadline;
+
+        private DeadlineJPAQuery(EntityManager entityManager, RequestDeadline deadline) {
+            super(entityManager);
+            this.deadline = deadline;
+        }
+
+        //fetch, fetchOne, fetchCount, stream 모두 여기를 거친다
+        @Override
+        protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+            if (deadline == null) {
+                return super.createQuery(modifiers, forCount);
+            }
+            deadline.checkNotExpired();
+            Query query = super.createQuery(modifiers, forCount);
+            query.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, deadline.queryTimeoutMillis());
+            return query;
+        }
+    }
+}
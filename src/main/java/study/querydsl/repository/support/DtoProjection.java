@@ -0,0 +1,208 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / fields 대체용 프로젝션
+ * DTO 클래스 + 별칭 목록마다 기본 생성자와 setter 를 LambdaMetafactory 로 만든 Supplier/BiConsumer 로 한 번만 만들어 캐시한다.
+ * 행마다 리플렉션 조회나 Method.invoke 가 없어서 생성자 직접 호출에 가깝게 동작하고, DTO 는 Querydsl 에 의존하지 않는다.
+ * setter 가 없으면 필드에 직접 넣는다. (LambdaMetafactory 는 필드를 대상으로 못 해서 MethodHandle 로 호출)
+ * Projections.bean 처럼 null 값은 넣지 않고 건너뛴다.
+ */
+public class DtoProjection<T> extends FactoryExpressionBase<T> {
+
+    private static final ConcurrentHashMap<AccessorKey, Accessors> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final List<Expression<?>> args;
+    private final Accessors accessors;
+
+    private DtoProjection(Class<? extends T> type, Expression<?>... args) {
+        super(type);
+        this.args = List.of(args);
+        String[] names = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            names[i] = propertyName(args[i]);
+        }
+        this.accessors = ACCESSORS.computeIfAbsent(new AccessorKey(type, List.of(names)), DtoProjection::createAccessors);
+    }
+
+    /**
+     * 경로 이름(또는 as 별칭)과 같은 이름의 setter/필드에 값을 넣는다.
+     * <pre>DtoProjection.bean(UserDto.class, member.username.as("name"), member.age)</pre>
+     */
+    public static <T> DtoProjection<T> bean(Class<? extends T> type, Expression<?>... args) {
+        return new DtoProjection<>(type, args);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... values) {
+        Object instance = accessors.constructor.get();
+        BiConsumer<Object, Object>[] setters = accessors.setters;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                setters[i].accept(instance, values[i]);
+            }
+        }
+        return (T) instance;
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof DtoProjection<?> other && getType().equals(other.getType()) && args.equals(other.args);
+    }
+
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS
+                && operation.getArg(1) instanceof Path<?> alias) {
+            return alias.getMetadata().getName();
+        }
+        throw new IllegalArgumentException("경로나 별칭(as)이 있는 식만 사용할 수 있습니다: " + expr);
+    }
+
+    private static Accessors createAccessors(AccessorKey key) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(key.type, MethodHandles.lookup());
+            Supplier<Object> constructor = constructor(lookup, key.type);
+            @SuppressWarnings("unchecked")
+            BiConsumer<Object, Object>[] setters = new BiConsumer[key.names.size()];
+            for (int i = 0; i < setters.length; i++) {
+                setters[i] = setter(lookup, key.type, key.names.get(i));
+            }
+            return new Accessors(constructor, setters);
+        } catch (ExpressionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExpressionException("DTO 접근자를 만들 수 없습니다: " + key.type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(MethodHandles.Lookup lookup, Class<?> type) throws Throwable {
+        MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+        CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                MethodType.methodType(Supplier.class),
+                MethodType.methodType(Object.class),
+                constructor,
+                MethodType.methodType(type));
+        return (Supplier<Object>) site.getTarget().invokeExact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> type, String name) throws Throwable {
+        Method method = findSetter(type, name);
+        if (method != null) {
+            MethodHandle setter = lookup.unreflect(method);
+            Class<?> parameterType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setter,
+                    MethodType.methodType(void.class, type, parameterType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        }
+
+        Field field = findField(type, name);
+        MethodHandle fieldSetter = lookup.unreflectSetter(field)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (instance, value) -> {
+            try {
+                fieldSetter.invokeExact(instance, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+        };
+    }
+
+    private static Method findSetter(Class<?> type, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.getName().equals(setterName) && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        throw new ExpressionException(type.getName() + " 에 " + name + " setter/필드가 없습니다.");
+    }
+
+    private static class Accessors {
+        private final Supplier<Object> constructor;
+        private final BiConsumer<Object, Object>[] setters;
+
+        private Accessors(Supplier<Object> constructor, BiConsumer<Object, Object>[] setters) {
+            this.constructor = constructor;
+            this.setters = setters;
+        }
+    }
+
+    private static class AccessorKey {
+        private final Class<?> type;
+        private final List<String> names;
+
+        private AccessorKey(Class<?> type, List<String> names) {
+            this.type = type;
+            this.names = names;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof AccessorKey other && type.equals(other.type) && names.equals(other.names);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, names);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.admission.SearchCostEstimator;
+import study.querydsl.dto.MemberSearchCndition;
+
+/**
+ * CountMode.ESTIMATED 용 total 추정
+ * count 쿼리 대신 MemberTableStats 통계(카탈로그 행 수, 인덱스로 읽은 나이 범위)와 조건별 선택도로 계산한다. (SearchCostEstimator 와 같은 식)
+ * 통계는 백그라운드에서 갱신되므로 (MemberTableStats) 여기서 따로 보관하거나 무효화할 값은 없다.
+ * 쓰기 트랜잭션 안에서는 커밋 전 변경이 통계에 없으므로 추정하지 않는다. (canEstimate 가 false 면 호출한 쪽이 정확히 센다)
+ */
+@Component
+public class MemberCountEstimator {
+
+    private final SearchCostEstimator costEstimator;
+
+    public MemberCountEstimator(SearchCostEstimator costEstimator) {
+        this.costEstimator = costEstimator;
+    }
+
+    public boolean canEstimate() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * PageableExecutionUtils 가 total 을 물을 때 (페이지가 꽉 찼거나, 0페이지가 아닌데 비었을 때) 호출한다.
+     * 추정치가 이미 읽은 행과 어긋나면 읽은 결과에 맞춘다.
+     */
+    public long estimate(MemberSearchCndition condition, Pageable pageable, int contentSize) {
+        long estimated = costEstimator.matchedRows(condition);
+        //빈 페이지면 offset 앞까지만 있다
+        if (contentSize == 0) {
+            return Math.min(estimated, pageable.getOffset());
+        }
+        //통계가 낡아 적게 나오면 지금 페이지까지는 있다
+        return Math.max(estimated, pageable.getOffset() + contentSize);
+    }
+}
@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * content 쿼리와 count 쿼리를 동시에 실행한다.
+ * 각 쿼리는 별도 스레드에서 각자의 읽기 전용 트랜잭션(커넥션)으로 실행되므로 호출한 쪽 트랜잭션의 미반영 변경은 보이지 않는다.
+ * count 결과를 쓸지는 기존과 같이 PageableExecutionUtils 규칙을 따르고, 필요 없으면 아직 시작 전이면 건너뛰고 실행 중이면 statement 를 취소한다.
+ */
+@Component
+public class ParallelPagination {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final SimpleAsyncTaskExecutor executor;
+    private final EntityManager em;
+
+    public ParallelPagination(PlatformTransactionManager transactionManager, EntityManager em,
+                              @Value("${pagination.parallel.concurrency:8}") int concurrency) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.em = em;
+        //동시 실행 수는 커넥션 풀 크기 이하로 제한, 넘으면 호출 스레드가 대기한다
+        this.executor = new SimpleAsyncTaskExecutor("pagination-");
+        this.executor.setConcurrencyLimit(concurrency);
+        //JDK 21 이상이면 가상 스레드 사용
+        this.executor.setVirtualThreads(Runtime.version().feature() >= 21);
+    }
+
+    public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> contentQuery, LongSupplier countQuery) {
+        CancellableCount count = new CancellableCount(countQuery);
+        CompletableFuture<List<T>> content = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> contentQuery.get()), executor);
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> count.run(em)), executor);
+
+        List<T> result;
+        try {
+            result = join(content);
+        } catch (RuntimeException e) {
+            count.cancel();
+            throw e;
+        }
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(result, pageable, () -> {
+            countUsed.set(true);
+            return join(total);
+        });
+        //첫 페이지가 덜 찼거나 마지막 페이지라 count 가 필요 없으면 실행 중인 statement 를 취소한다
+        if (!countUsed.get()) {
+            count.cancel();
+        }
+        return page;
+    }
+
+    /**
+     * 취소할 수 있는 count 실행
+     * 시작 전에 취소되면 실행하지 않고, 실행 중이면 그 세션의 JDBC statement 를 취소(Statement.cancel)한다.
+     * 취소된 count 는 예외로 끝나지만 아무도 결과를 기다리지 않으므로 버려진다.
+     */
+    static class CancellableCount {
+
+        private final LongSupplier countQuery;
+        private final AtomicReference<Session> session = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        CancellableCount(LongSupplier countQuery) {
+            this.countQuery = countQuery;
+        }
+
+        //count 스레드의 트랜잭션 안에서 호출
+        long run(EntityManager em) {
+            session.set(em.unwrap(Session.class));
+            try {
+                if (cancelled) {
+                    return -1;
+                }
+                return countQuery.getAsLong();
+            } finally {
+                //끝난 뒤에는 같은 커넥션의 다른 쿼리를 취소하지 않도록 끊는다
+                session.set(null);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Session running = session.get();
+            if (running == null) {
+                return;
+            }
+            try {
+                running.cancelQuery();
+            } catch (RuntimeException e) {
+                //이미 끝나서 세션이 닫힌 경우
+            }
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
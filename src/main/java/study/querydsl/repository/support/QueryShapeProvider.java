@@ -0,0 +1,15 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.dto.MemberSearchCndition;
+
+import java.util.List;
+
+/**
+ * 검색 조건 하나에 대해 저장소가 실제로 실행하는 쿼리 모양들을 돌려준다.
+ * 실행하지 않고 createQuery() 까지만 해서 기동 시 Hibernate 쿼리 플랜 캐시를 채우는 데 쓴다.
+ */
+public interface QueryShapeProvider {
+
+    List<JPAQuery<?>> queryShapes(MemberSearchCndition condition);
+}
@@ -1,11 +1,23 @@
 package study.querydsl.repository.support;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,7 +29,9 @@ import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리 *
  * @author Younghan Kim
@@ -30,6 +44,7 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelPagination parallelPagination;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
@@ -42,13 +57,18 @@ public abstract class Querydsl4RepositorySupport {
         EntityPath path = resolver.createPath(entityInformation.getJavaType());
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.queryFactory = new DeadlineJPAQueryFactory(entityManager);
+    }
+    @Autowired
+    public void setParallelPagination(ParallelPagination parallelPagination) {
+        this.parallelPagination = parallelPagination;
     }
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(parallelPagination, "ParallelPagination must not be null!");
     }
     protected JPAQueryFactory getQueryFactory() {
         return queryFactory;
@@ -65,6 +85,52 @@ public abstract class Querydsl4RepositorySupport {
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
         return getQueryFactory().selectFrom(from);
     }
+    protected CountQueryBuilder countQuery(EntityPath<?> from, SimpleExpression<?> countTarget) {
+        return new CountQueryBuilder(getQueryFactory(), from, countTarget);
+    }
+    //결과 엔티티를 읽기 전용으로 로딩, 스냅샷을 남기지 않아 dirty checking 대상이 아니다
+    protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+    //work 안에서 로딩되는 엔티티는 모두 읽기 전용, 트랜잭션 안에서 호출해야 한다
+    protected <R> R withReadOnlySession(Supplier<R> work) {
+        return ReadOnlySession.execute(getEntityManager(), work);
+    }
+    /**
+     * 대량 조회용. StatelessSession 으로 id 순 키셋 청크를 읽어서 한 건씩 넘긴다.
+     * 영속성 컨텍스트도 스냅샷도 없으므로 메모리는 청크 크기만큼만 쓴다.
+     * 별도 커넥션에서 읽으므로 현재 트랜잭션의 커밋 전 변경은 보이지 않고, 지연 로딩 연관관계는 초기화할 수 없다.
+     */
+    protected <T> long scanStateless(EntityPath<T> from, NumberPath<Long> id, Predicate where, int chunkSize, Consumer<? super T> action) {
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) from.getType();
+        SessionFactory sessionFactory = getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class);
+        PersistenceUnitUtil persistenceUnitUtil = sessionFactory.getPersistenceUnitUtil();
+        long count = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Long lastId = null;
+            while (true) {
+                JPAQuery<T> chunk = new JPAQuery<T>()
+                        .select(from)
+                        .from(from)
+                        .where(where, lastId == null ? null : id.gt(lastId))
+                        .orderBy(id.asc());
+                JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+                serializer.serialize(chunk.getMetadata(), false, null);
+                org.hibernate.query.Query<T> query = session.createQuery(serializer.toString(), type);
+                JPAUtil.setConstants(query, serializer.getConstants(), chunk.getMetadata().getParams());
+                List<T> rows = query.setMaxResults(chunkSize).getResultList();
+                for (T row : rows) {
+                    action.accept(row);
+                }
+                count += rows.size();
+                if (rows.size() < chunkSize) {
+                    return count;
+                }
+                lastId = (Long) persistenceUnitUtil.getIdentifier(rows.get(rows.size() - 1));
+            }
+        }
+    }
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
@@ -77,4 +143,18 @@ public abstract class Querydsl4RepositorySupport {
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
     }
+    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, CountQueryBuilder countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        JPAQuery<Long> countResult = countQuery.build();
+        return PageableExecutionUtils.getPage(content, pageable,
+                countResult::fetchOne);
+    }
+    //content 는 다른 스레드의 트랜잭션에서 읽혀 돌아올 때는 이미 준영속이라, 지연 로딩이 없는 DTO 프로젝션(FactoryExpression)만 받는다
+    protected <T> Page<T> applyPaginationParallel(Pageable pageable, FactoryExpression<T> projection,
+                                                  Function<JPAQuery<T>, JPAQuery<T>> contentQuery, CountQueryBuilder countQuery) {
+        JPQLQuery<T> jpaContentQuery = getQuerydsl().applyPagination(pageable, contentQuery.apply(select(projection)));
+        JPAQuery<Long> countResult = countQuery.build();
+        return parallelPagination.getPage(pageable, jpaContentQuery::fetch, countResult::fetchOne);
+    }
 }
\ No newline at end of file
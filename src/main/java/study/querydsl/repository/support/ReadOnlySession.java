@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 트랜잭션의 Session 을 잠시 읽기 전용 기본값으로 바꿔서 실행한다.
+ * 그 안에서 로딩된 엔티티는 스냅샷이 없고 flush 대상이 아니다. QuerydslPredicateExecutor 처럼 쿼리를 직접 만들지 않는 조회에 쓴다.
+ * 읽기 전용 트랜잭션은 HibernateJpaDialect 가 이미 같은 설정을 하므로, 쓰기 트랜잭션 안의 대량 조회에서 의미가 있다.
+ */
+@Component
+public class ReadOnlySession {
+
+    private final EntityManager em;
+
+    public ReadOnlySession(EntityManager em) {
+        this.em = em;
+    }
+
+    public <R> R execute(Supplier<R> work) {
+        return execute(em, work);
+    }
+
+    static <R> R execute(EntityManager em, Supplier<R> work) {
+        Assert.state(TransactionSynchronizationManager.isActualTransactionActive(), "트랜잭션 안에서 호출해야 합니다.");
+        Session session = em.unwrap(Session.class);
+        boolean previous = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return work.get();
+        } finally {
+            session.setDefaultReadOnly(previous);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkIngestReport;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 적재용 서비스
+ * 시퀀스는 allocationSize 만큼 미리 받아오고(pooled), insert 는 hibernate.jdbc.batch_size 단위로 묶여서 나간다.
+ * 배치 크기마다 flush 하고 그 배치에서 만든 회원만 분리해서 영속성 컨텍스트가 커지지 않게 한다.
+ * 호출한 쪽 트랜잭션에 참여하고, 호출한 쪽이 관리하던 엔티티는 그대로 둔다.
+ */
+@Slf4j
+@Service
+public class MemberBulkIngestService {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final int chunkSize;
+
+    public MemberBulkIngestService(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * member{i} 회원을 memberCount 명 만들고 팀은 순서대로 돌아가며 배정한다. 나이는 i % 100
+     */
+    @Transactional
+    public BulkIngestReport ingest(List<String> teamNames, long memberCount) {
+        long start = System.nanoTime();
+
+        List<Team> teams = new ArrayList<>();
+        for (String teamName : teamNames) {
+            Team team = new Team(teamName);
+            em.persist(team);
+            teams.add(team);
+        }
+
+        List<Member> chunk = new ArrayList<>(chunkSize);
+        for (long i = 0; i < memberCount; i++) {
+            Member member = new Member("member" + i, (int) (i % 100));
+            //changeTeam 은 team.members 컬렉션에 쌓이므로 대량 적재에서는 연관관계 주인 쪽만 설정
+            if (!teams.isEmpty()) {
+                member.setTeam(teams.get((int) (i % teams.size())));
+            }
+            em.persist(member);
+            chunk.add(member);
+
+            if (chunk.size() == chunkSize) {
+                flushAndDetach(chunk);
+            }
+        }
+        int teamCount = teams.size();
+        flushAndDetach(chunk);
+        flushAndDetach(teams);
+
+        BulkIngestReport report = new BulkIngestReport(teamCount, memberCount, Duration.ofNanos(System.nanoTime() - start));
+        log.info("bulk ingest finished: {}", report);
+        return report;
+    }
+
+    //clear() 는 호출한 쪽 엔티티까지 분리하므로 여기서 만든 엔티티만 분리한다
+    private void flushAndDetach(List<?> entities) {
+        em.flush();
+        for (Object entity : entities) {
+            em.detach(entity);
+        }
+        entities.clear();
+    }
+}
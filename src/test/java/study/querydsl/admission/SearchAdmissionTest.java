@@ -0,0 +1,108 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.support.SqlCapture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "member.search.admission.expensive-rows=50",
+        "member.search.admission.max-concurrent-expensive=1",
+        "member.search.admission.max-wait=0s"})
+@Transactional
+@Import(SqlCapture.class)
+class SearchAdmissionTest {
+    @Autowired
+    SearchAdmission searchAdmission;
+    @Autowired
+    SearchCostEstimator costEstimator;
+    @Autowired
+    MemberTableStats tableStats;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @Test
+    public void statsAreReadWithoutScanningTables() throws Exception {
+        //given
+        sqlCapture.clear();
+        //when
+        tableStats.refresh();
+        //then 행 수는 카탈로그에서, 나이 범위는 인덱스 양 끝에서
+        assertThat(tableStats.current().getRows()).isGreaterThanOrEqualTo(100);
+        assertThat(sqlCapture.selects()).noneMatch(sql -> sql.contains("count("));
+        assertThat(sqlCapture.selects()).anyMatch(sql -> sql.contains("information_schema.tables"));
+    }
+
+    @Test
+    public void selectiveConditionIsCheaperThanFullScan() throws Exception {
+        //given
+        MemberSearchCndition all = new MemberSearchCndition();
+        MemberSearchCndition byUsername = new MemberSearchCndition();
+        byUsername.setUsername("member1");
+        //when
+        long allRows = costEstimator.matchedRows(all);
+        long usernameRows = costEstimator.matchedRows(byUsername);
+        //then
+        assertThat(allRows).isGreaterThanOrEqualTo(100);
+        assertThat(usernameRows).isEqualTo(1);
+        assertThat(costEstimator.rowsToFill(all, 20)).isEqualTo(20);
+    }
+
+    @Test
+    public void deepPageCountsSkippedRows() throws Exception {
+        //given page=100000&size=20
+        MemberSearchCndition all = new MemberSearchCndition();
+        long offsetPlusPageSize = 100_000L * 20 + 20;
+        //when
+        long shallow = costEstimator.rowsToFill(all, 20);
+        long deep = costEstimator.rowsToFill(all, offsetPlusPageSize);
+        //then 앞 페이지는 싸지만 깊은 페이지는 조건에 맞는 행을 다 읽는다
+        assertThat(shallow).isLessThan(50);
+        assertThat(deep).isEqualTo(costEstimator.matchedRows(all));
+        assertThat(deep).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    public void expensiveSearchIsRejectedWhenBulkheadIsFull() throws Exception {
+        //given 비싼 검색 하나가 자리를 잡고 있다
+        MemberSearchCndition all = new MemberSearchCndition();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> searchAdmission.admit(all, () -> {
+            running.countDown();
+            await(release);
+            return "done";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MemberSearchCndition byUsername = new MemberSearchCndition();
+        byUsername.setUsername("member1");
+        try {
+            //when then
+            assertThatThrownBy(() -> searchAdmission.admit(all, () -> "expensive"))
+                    .isInstanceOf(AdmissionRejectedException.class);
+            assertThat(searchAdmission.admit(byUsername, () -> "cheap")).isEqualTo("cheap");
+        } finally {
+            release.countDown();
+        }
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.CacheRegionStats;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 결과 캐시는 읽기 전용 트랜잭션에서만 쓰므로 데이터를 커밋하고 끝나면 지운다.
+ */
+@SpringBootTest
+class SearchResultCacheTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    SearchResultCache searchResultCache;
+
+    TransactionTemplate tx;
+    TransactionTemplate readOnlyTx;
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        queryFactory = new JPAQueryFactory(em);
+
+        tx.executeWithoutResult(status -> {
+            Team searchTeam = new Team("searchCacheTeam");
+            em.persist(searchTeam);
+            em.persist(new Member("searchCacheMember1", 10, searchTeam));
+            em.persist(new Member("searchCacheMember2", 20, searchTeam));
+        });
+        searchResultCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("searchCacheMember")).execute();
+            queryFactory.delete(team).where(team.name.eq("searchCacheTeam")).execute();
+        });
+    }
+
+    @Test
+    public void repeatedSearchIsServedFromCache() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("searchCacheTeam");
+        condition.setUsername("");
+        CacheRegionStats before = searchResultCache.stats();
+        //when
+        List<MemberTeamDto> first = readOnlyTx.execute(status -> memberRepository.search(condition));
+        MemberSearchCndition sameCondition = new MemberSearchCndition();
+        sameCondition.setTeamName("searchCacheTeam");
+        List<MemberTeamDto> second = readOnlyTx.execute(status -> memberRepository.search(sameCondition));
+        //then 빈 username 은 조건 없음과 같은 키
+        assertThat(first).hasSize(2);
+        assertThat(second).isSameAs(first);
+        CacheRegionStats after = searchResultCache.stats();
+        assertThat(after.getMisses() - before.getMisses()).isEqualTo(1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesCache() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("searchCacheTeam");
+        condition.setAgeGoe(15);
+        assertThat(readOnlyTx.execute(status -> memberRepository.search(condition))).hasSize(1);
+        //when
+        tx.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, 30)
+                .where(member.username.startsWith("searchCacheMember"))
+                .execute());
+        //then
+        assertThat(readOnlyTx.execute(status -> memberRepository.search(condition))).hasSize(2);
+    }
+
+    @Test
+    public void writeTransactionBypassesCache() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("searchCacheTeam");
+        CacheRegionStats before = searchResultCache.stats();
+        //when
+        List<MemberTeamDto> result = tx.execute(status -> {
+            em.persist(new Member("searchCacheMember3", 30, em.getReference(Team.class, memberTeamId())));
+            return memberRepository.search(condition);
+        });
+        //then
+        assertThat(result).hasSize(3);
+        assertThat(searchResultCache.stats().getPuts()).isEqualTo(before.getPuts());
+    }
+
+    private Long memberTeamId() {
+        return queryFactory.select(team.id).from(team).where(team.name.eq("searchCacheTeam")).fetchOne();
+    }
+}
@@ -0,0 +1,165 @@
+package study.querydsl.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.deadline.DeadlineExceededException;
+import study.querydsl.deadline.RequestDeadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    static final int CALLERS = 8;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+    ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        //given
+        AtomicInteger executions = new AtomicInteger();
+        //when
+        List<Future<String>> results = callConcurrently(() -> {
+            executions.incrementAndGet();
+            return "result";
+        });
+        //then
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        assertThat(followerCount()).isEqualTo(CALLERS - 1);
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(singleFlight.coalescingRatio()).isEqualTo((CALLERS - 1) / (double) CALLERS);
+    }
+
+    @Test
+    public void failureIsSharedAndKeyIsReleased() throws Exception {
+        //given
+        IllegalStateException failure = new IllegalStateException("db down");
+        //when
+        List<Future<String>> results = callConcurrently(() -> {
+            throw failure;
+        });
+        //then leader 와 follower 모두 같은 예외를 받는다
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseReference(failure);
+        }
+        //끝난 실행은 남지 않는다
+        assertThat(singleFlight.execute("key", () -> "retry")).isEqualTo("retry");
+    }
+
+    @Test
+    public void followerWaitsOnlyUntilOwnDeadline() throws Exception {
+        //given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "result";
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        //when
+        Future<String> follower = executor.submit(() -> {
+            RequestDeadline.start("test", Duration.ofMillis(100));
+            try {
+                return singleFlight.execute("key", () -> "other");
+            } finally {
+                RequestDeadline.clear();
+            }
+        });
+        //then leader 가 끝나기 전에 자기 마감 시간으로 끝난다
+        try {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(DeadlineExceededException.class);
+            assertThat(leader.isDone()).isFalse();
+        } finally {
+            release.countDown();
+        }
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+    }
+
+    @Test
+    public void leaderDeadlineFailureIsRetriedByFollowers() throws Exception {
+        //given
+        AtomicInteger retries = new AtomicInteger();
+        //when leader 만 자기 마감 시간으로 실패한다
+        List<Future<String>> results = callConcurrently(() -> {
+            throw new DeadlineExceededException("leader deadline");
+        }, () -> {
+            retries.incrementAndGet();
+            return "retried";
+        });
+        //then 마감 시간이 없는 follower 는 그 예외를 받지 않고 다시 실행한 결과를 받는다
+        assertThatThrownBy(() -> results.get(0).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        for (Future<String> result : results.subList(1, results.size())) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("retried");
+        }
+        assertThat(retries.get()).isBetween(1, CALLERS - 1);
+    }
+
+    private List<Future<String>> callConcurrently(Supplier<String> leaderWork) throws InterruptedException {
+        return callConcurrently(leaderWork, () -> "other");
+    }
+
+    //leader 가 실행을 시작하면 나머지를 보내고, 모두 follower 로 합류한 뒤에야 leader 를 끝낸다
+    private List<Future<String>> callConcurrently(Supplier<String> leaderWork, Supplier<String> followerWork) throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+            leaderStarted.countDown();
+            awaitFollowers();
+            return leaderWork.get();
+        })));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", followerWork)));
+        }
+        return results;
+    }
+
+    //leader 를 뺀 모든 호출이 follower 로 합류할 때까지 follower 카운터를 본다
+    private void awaitFollowers() {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (followerCount() < CALLERS - 1 && System.nanoTime() < until) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private double followerCount() {
+        return meterRegistry.get("test.singleflight").tag("role", "follower").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.CountQueryBuilder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class TeamNameIndexTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamNameIndex teamNameIndex;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void resolveTeamName() throws Exception {
+        //given
+        Team teamA = new Team("indexTeamA");
+        Team teamB = new Team("indexTeamA");
+        em.persist(teamA);
+        em.persist(teamB);
+        //when
+        List<Long> ids = teamNameIndex.idsOf("indexTeamA");
+        //then
+        assertThat(ids).containsExactly(teamA.getId(), teamB.getId());
+        assertThat(teamNameIndex.idsOf("indexTeamNone")).isEmpty();
+    }
+
+    @Test
+    public void teamChangeInvalidatesIndex() throws Exception {
+        //given
+        Team team = new Team("indexTeamOld");
+        em.persist(team);
+        assertThat(teamNameIndex.idsOf("indexTeamOld")).containsExactly(team.getId());
+        assertThat(teamNameIndex.idsOf("indexTeamNew")).isEmpty();
+        //when
+        team.setName("indexTeamNew");
+        em.flush();
+        //then
+        assertThat(teamNameIndex.idsOf("indexTeamOld")).isEmpty();
+        assertThat(teamNameIndex.idsOf("indexTeamNew")).containsExactly(team.getId());
+    }
+
+    @Test
+    public void unflushedRenameIsVisible() throws Exception {
+        //given
+        Team team = new Team("indexTeamBefore");
+        em.persist(team);
+        em.persist(new Member("indexRenamed", 10, team));
+        em.flush();
+        assertThat(teamNameIndex.idsOf("indexTeamBefore")).containsExactly(team.getId());
+        //when
+        team.setName("indexTeamAfter");
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("indexTeamAfter");
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        //then
+        assertThat(result).extracting("username").containsExactly("indexRenamed");
+        assertThat(teamNameIndex.idsOf("indexTeamBefore")).isEmpty();
+    }
+
+    @Test
+    public void uncommittedTeamIsNotSharedWithOtherTransactions() throws Exception {
+        //given
+        Team team = new Team("indexTeamUncommitted");
+        em.persist(team);
+        em.flush();
+        assertThat(teamNameIndex.idsOf("indexTeamUncommitted")).containsExactly(team.getId());
+        //when 다른 트랜잭션에서 조회
+        List<Long> otherTransaction = CompletableFuture.supplyAsync(
+                        () -> transactionTemplate.execute(status -> teamNameIndex.idsOf("indexTeamUncommitted")))
+                .get(5, TimeUnit.SECONDS);
+        //then
+        assertThat(otherTransaction).isEmpty();
+    }
+
+    @Test
+    public void teamNameCountSkipsJoin() throws Exception {
+        //given
+        Team team = new Team("indexTeamCount");
+        em.persist(team);
+        em.persist(new Member("indexMember1", 10, team));
+        em.persist(new Member("indexMember2", 20, team));
+        JPAQuery<Long> countQuery = new CountQueryBuilder(new JPAQueryFactory(em), member, member.id)
+                .leftJoin(member.team, team)
+                .where(member.team.id.in(teamNameIndex.idsOf("indexTeamCount")))
+                .build();
+        //when
+        String jpql = countQuery.toString();
+        //then
+        assertThat(jpql).doesNotContain("join");
+        assertThat(countQuery.fetchOne()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCndition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 컴파일된 플랜 수는 Hibernate 통계로 세므로 이 테스트에서만 통계를 켠다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class QueryPlanWarmUpTest {
+    @Autowired
+    QueryPlanWarmUp queryPlanWarmUp;
+
+    @Test
+    public void conditionsCoverEveryPredicateCombination() throws Exception {
+        //when
+        List<MemberSearchCndition> conditions = QueryPlanWarmUp.conditions("teamA");
+        //then
+        assertThat(conditions).hasSize(16).doesNotHaveDuplicates();
+        assertThat(conditions).contains(new MemberSearchCndition());
+    }
+
+    @Test
+    public void shapesAreAlreadyCompiledAfterStartup() throws Exception {
+        //when
+        QueryPlanWarmUp.WarmUpResult result = queryPlanWarmUp.warmUp();
+        //then
+        assertThat(result.getShapes()).isGreaterThanOrEqualTo(16);
+        assertThat(result.getPlansCompiled()).isZero();
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuerydslRuntimeHintsTest {
+
+    @Test
+    public void qTypeStaticFieldsAreReflectable() throws Exception {
+        //given
+        RuntimeHints hints = new RuntimeHints();
+        //when
+        new QuerydslRuntimeHints.QTypeHints().registerHints(hints, getClass().getClassLoader());
+        //then
+        assertThat(RuntimeHintsPredicates.reflection().onField(QMember.class, "member")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onField(QTeam.class, "team")).accepts(hints);
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.config.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 두 개의 인메모리 H2 를 primary, replica 로 사용한다.
+ * replica 에는 primary 의 스키마만 복사하고 데이터는 직접 넣어서 어느 쪽에서 읽었는지 구분한다.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.lag-check-interval=1h",
+        "app.datasource.primary.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replicas[0].url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1"
+})
+@Import(ReadReplicaRoutingTest.LagProbeConfig.class)
+class ReadReplicaRoutingTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    DataSourceNodes nodes;
+    @Autowired
+    ReplicaLagTracker lagTracker;
+    @Autowired
+    MutableLagProbe lagProbe;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void copySchemaToReplica() throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection primary = nodes.getPrimary().getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+            while (rs.next()) {
+                ddl.add(rs.getString(1));
+            }
+        }
+        execute(replica(), "DROP ALL OBJECTS");
+        for (String sql : ddl) {
+            execute(replica(), sql);
+        }
+    }
+
+    @AfterEach
+    public void resetLag() {
+        lagProbe.lag = Duration.ZERO;
+        lagTracker.refresh();
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() throws Exception {
+        assertThat(connectionUrl(true)).startsWith("jdbc:h2:mem:routing_replica");
+    }
+
+    @Test
+    public void readWriteTransactionUsesPrimary() throws Exception {
+        assertThat(connectionUrl(false)).startsWith("jdbc:h2:mem:routing_primary");
+    }
+
+    @Test
+    public void laggingReplicaFallsBackToPrimary() throws Exception {
+        //given
+        lagProbe.lag = Duration.ofMinutes(1);
+        //when
+        lagTracker.refresh();
+        //then
+        assertThat(connectionUrl(true)).startsWith("jdbc:h2:mem:routing_primary");
+    }
+
+    @Test
+    public void searchReadsFromReplica() throws Exception {
+        //given
+        execute(replica(), "insert into team (team_id, name) values (900001, 'replicaTeam')");
+        execute(replica(), "insert into member (member_id, username, age, team_id) values (900001, 'replicaMember', 20, 900001)");
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setUsername("replicaMember");
+        //when
+        List<MemberTeamDto> result = memberJpaRepository.search(condition);
+        //then
+        assertThat(result).extracting("teamName").containsExactly("replicaTeam");
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> em.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getURL()));
+    }
+
+    private DataSource replica() {
+        return nodes.getReplicas().get("replica-0");
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    static class MutableLagProbe implements ReplicaLagProbe {
+        volatile Duration lag = Duration.ZERO;
+
+        @Override
+        public Duration lag(String name, DataSource replica) {
+            return lag;
+        }
+    }
+
+    @TestConfiguration
+    static class LagProbeConfig {
+        @Bean
+        MutableLagProbe replicaLagProbe() {
+            return new MutableLagProbe();
+        }
+    }
+}
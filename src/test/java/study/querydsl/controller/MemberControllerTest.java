@@ -0,0 +1,53 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.repository.MemberRepositoryCustom.MAX_SEARCH_ALL_CONDITIONS;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void keysetSizeOutOfRangeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("cursor", "!!!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void validKeysetRequestIsOk() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void tooManyBatchConditionsIsBadRequest() throws Exception {
+        String conditions = "[" + String.join(",", Collections.nCopies(MAX_SEARCH_ALL_CONDITIONS + 1, "{}")) + "]";
+        mockMvc.perform(post("/v1/members/batch").contentType(MediaType.APPLICATION_JSON).content(conditions))
+                .andExpect(status().isBadRequest());
+    }
+}
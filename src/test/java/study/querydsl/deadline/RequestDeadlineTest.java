@@ -0,0 +1,76 @@
+package study.querydsl.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = "request.deadline.endpoints.[/v2/members]=0s")
+@AutoConfigureMockMvc
+@Transactional
+class RequestDeadlineTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void clear() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void remainingTimeIsAppliedAsQueryTimeout() throws Exception {
+        //given
+        RequestDeadline.start("test", Duration.ofMillis(2500));
+        //when
+        jakarta.persistence.Query query = new DeadlineJPAQueryFactory(em)
+                .selectFrom(member)
+                .createQuery();
+        //then 초 단위로 올림
+        assertThat(query.unwrap(org.hibernate.query.Query.class).getTimeout()).isEqualTo(3);
+    }
+
+    @Test
+    public void expiredDeadlineFailsBeforeQuery() throws Exception {
+        //given
+        RequestDeadline.start("test", Duration.ZERO);
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setUsername("deadlineMember");
+        //when then
+        assertThatThrownBy(() -> memberRepository.search(condition))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    public void expiredEndpointRespondsServiceUnavailable() throws Exception {
+        //when
+        mockMvc.perform(get("/v2/members").param("username", "deadlineMember"))
+                //then
+                .andExpect(status().isServiceUnavailable());
+        assertThat(meterRegistry.get("request.deadline.exceeded")
+                .tag("endpoint", "/v2/members")
+                .tag("phase", "before-query")
+                .counter().count()).isEqualTo(1);
+    }
+}
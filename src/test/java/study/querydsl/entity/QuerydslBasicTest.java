@@ -24,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DtoProjection;
 
 import java.util.List;
 
@@ -505,6 +506,26 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test //setter 를 LambdaMetafactory 로 만들어 캐시, Dto 는 querydsl 에 의존하지 않는다
+    public void findDtoByMethodHandle() throws Exception {
+        QMember memberSub = new QMember("memberSub");
+        //given
+        List<UserDto> fetch = queryFactory
+                .select(DtoProjection.bean(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub),"age")))
+                .from(member)
+                .where(member.username.eq("member1"))
+                .fetch();
+        //when
+        //then
+        assertThat(fetch).isNotEmpty();
+        assertThat(fetch).extracting("name").containsOnly("member1");
+        assertThat(fetch).allMatch(userDto -> userDto.getAge() >= 40);
+    }
+
     @Test //Dto를 Q파일로 만들어서 실행 / 단점은 Dto가 querydsl에 의존적이다.
     public void findDtoByQueryProjection() throws Exception {
         //given
@@ -0,0 +1,85 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.SecondLevelCacheStats;
+import study.querydsl.dto.CacheRegionStats;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 올라가므로 테스트 데이터를 커밋하고 끝나면 지운다.
+ * statement 수와 캐시 적중은 Hibernate 통계로 세므로 이 테스트에서만 통계를 켠다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TeamSecondLevelCacheTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    SecondLevelCacheStats secondLevelCacheStats;
+
+    Long memberId;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("cacheTeam");
+            em.persist(team);
+            Member member = new Member("cacheMember", 10, team);
+            em.persist(member);
+            memberId = member.getId();
+            teamId = team.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.remove(em.find(Member.class, memberId));
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void repeatedTeamAccessDoesNotIssueSql() throws Exception {
+        //given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        assertThat(readTeamName()).isEqualTo("cacheTeam");
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            assertThat(readTeamName()).isEqualTo("cacheTeam");
+        }
+
+        //then member 조회 쿼리만 나가고 team 은 캐시에서 읽는다
+        assertThat(statistics.getPrepareStatementCount() - statementsBefore).isEqualTo(3);
+        assertThat(statistics.getSecondLevelCacheHitCount() - hitsBefore).isGreaterThanOrEqualTo(3);
+        assertThat(secondLevelCacheStats.snapshot())
+                .filteredOn(stats -> stats.getRegion().equals(Team.class.getName()))
+                .singleElement()
+                .extracting(CacheRegionStats::getHits)
+                .satisfies(hits -> assertThat(hits).isGreaterThanOrEqualTo(3L));
+    }
+
+    private String readTeamName() {
+        return transactionTemplate.execute(status -> memberRepository.findById(memberId).get().getTeam().getName());
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void searchPageComplexIsMeasured() throws Exception {
+        //given
+        Team team = new Team("metricsTeam");
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("metricsMember" + i, 20 + i, team));
+        }
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("metricsTeam");
+        condition.setAgeGoe(20);
+        //when
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        //then content + count 두 번
+        Timer timer = meterRegistry.find("repository.query")
+                .tag("repository", "MemberRepositoryImpl")
+                .tag("method", "searchPageComplex")
+                .tag("predicates", "teamName,ageGoe")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+
+        DistributionSummary rows = meterRegistry.find("repository.query.rows")
+                .tag("method", "searchPageComplex")
+                .tag("predicates", "teamName,ageGoe")
+                .summary();
+        assertThat(rows.max()).isEqualTo(2);
+
+        DistributionSummary statements = meterRegistry.find("repository.query.statements")
+                .tag("method", "searchPageComplex")
+                .tag("predicates", "teamName,ageGoe")
+                .summary();
+        assertThat(statements.max()).isGreaterThanOrEqualTo(2);
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.metrics;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class StatementTrackerTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    StatementTracker statementTracker;
+
+    @Test
+    public void repeatedShapeIsReported() throws Exception {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member("trackerMember" + i, i);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+        //when 한 건씩 조회 (N+1 모양)
+        StatementScope scope = statementTracker.open("n+1", 0);
+        try {
+            for (Long id : ids) {
+                em.find(Member.class, id);
+            }
+        } finally {
+            statementTracker.close(scope);
+        }
+        //then
+        assertThat(scope.getSelects()).isEqualTo(5);
+        assertThat(scope.getRepeatedShapes()).hasSize(1);
+        assertThat(scope.getRepeatedShapes().values()).containsExactly(5);
+    }
+
+    @Test
+    public void shapeIgnoresLiteralsAndInListSize() throws Exception {
+        assertThat(StatementTracker.shape("/* comment */ select m from member m where m.id in (?, ?, ?) and m.name = 'a'"))
+                .isEqualTo(StatementTracker.shape("select m from member m where m.id in (?) and m.name = 'bb'"));
+    }
+}
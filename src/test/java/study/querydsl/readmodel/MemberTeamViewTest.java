@@ -0,0 +1,195 @@
+package study.querydsl.readmodel;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.MemberTeamView;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+//읽기 모델은 커밋 직전에 갱신되므로 테스트 트랜잭션(롤백) 대신 직접 커밋한다
+@SpringBootTest(properties = "member.search.read-model=view")
+class MemberTeamViewTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTeamViewMaintainer maintainer;
+
+    @AfterEach
+    public void cleanUp() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+            queryFactory.delete(member).where(member.username.startsWith("viewMember")).execute();
+            queryFactory.delete(team).where(team.name.startsWith("viewTeam")).execute();
+        });
+        //벌크 delete 뒤 정합 작업이 다음 테스트와 겹치지 않게 기다린다
+        maintainer.pendingReconcile().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void persistedMembersAreSearchableFromView() throws Exception {
+        //given
+        Long memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            em.persist(teamA);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("viewMember2", 20, teamA));
+            return member1.getId();
+        });
+        //when
+        List<MemberTeamDto> result = memberRepository.search(teamName("viewTeamA"));
+        //then
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("viewMember1", "viewMember2");
+        MemberTeamView row = transactionTemplate.execute(status -> em.find(MemberTeamView.class, memberId));
+        assertThat(row.getTeamName()).isEqualTo("viewTeamA");
+    }
+
+    @Test
+    public void changeTeamAndRenameAreReflected() throws Exception {
+        //given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            Team teamB = new Team("viewTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            em.persist(member1);
+            return new Long[]{member1.getId(), teamB.getId()};
+        });
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamB = em.find(Team.class, ids[1]);
+            em.find(Member.class, ids[0]).changeTeam(teamB);
+            teamB.setName("viewTeamRenamed");
+        });
+        //then
+        assertThat(memberRepository.search(teamName("viewTeamA"))).isEmpty();
+        assertThat(memberRepository.search(teamName("viewTeamRenamed")))
+                .extracting("username").containsExactly("viewMember1");
+    }
+
+    @Test
+    public void bulkUpdateIsReconciledAfterCommit() throws Exception {
+        //given
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("viewTeamA");
+            em.persist(teamA);
+            em.persist(new Member("viewMember1", 10, teamA));
+        });
+        //when
+        transactionTemplate.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .update(member)
+                .set(member.age, member.age.add(5))
+                .where(member.username.eq("viewMember1"))
+                .execute());
+        long changedRows = maintainer.pendingReconcile().get(5, TimeUnit.SECONDS);
+        //then 커밋 뒤 정합 작업이 바뀐 행 하나만 고친다
+        assertThat(changedRows).isEqualTo(1);
+        assertThat(memberRepository.search(teamName("viewTeamA")))
+                .extracting("age").containsExactly(15);
+    }
+
+    @Test
+    public void memberDeleteRemovesViewRow() throws Exception {
+        //given
+        Long memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            em.persist(teamA);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("viewMember2", 20, teamA));
+            return member1.getId();
+        });
+        //when
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+        //then
+        assertThat(transactionTemplate.execute(status -> em.find(MemberTeamView.class, memberId))).isNull();
+        assertThat(memberRepository.search(teamName("viewTeamA")))
+                .extracting("username").containsExactly("viewMember2");
+    }
+
+    @Test
+    public void rolledBackTransactionLeavesViewUnchanged() throws Exception {
+        //given
+        Long memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            em.persist(teamA);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            em.persist(member1);
+            return member1.getId();
+        });
+        //when 롤백으로 끝난 트랜잭션과 예외로 끝난 트랜잭션
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setAge(99);
+            em.persist(new Member("viewMember2", 20, em.find(Member.class, memberId).getTeam()));
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setUsername("viewMemberFailed");
+            em.flush();
+            throw new IllegalStateException("fail after flush");
+        })).isInstanceOf(IllegalStateException.class);
+        //then
+        MemberTeamView row = transactionTemplate.execute(status -> em.find(MemberTeamView.class, memberId));
+        assertThat(row.getAge()).isEqualTo(10);
+        assertThat(row.getUsername()).isEqualTo("viewMember1");
+        assertThat(memberRepository.search(teamName("viewTeamA")))
+                .extracting("username").containsExactly("viewMember1");
+    }
+
+    @Test
+    public void bulkUpdateAfterAutoFlushIsReconciled() throws Exception {
+        //given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            em.persist(teamA);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            Member member2 = new Member("viewMember2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            return new Long[]{member1.getId(), member2.getId()};
+        });
+        //when 엔티티 변경이 벌크 update 직전 자동 flush 로 나가고, 벌크 update 는 flush 가 끝난 뒤 나간다
+        Boolean flushingAfterBulk = transactionTemplate.execute(status -> {
+            em.find(Member.class, ids[1]).setAge(25);
+            new JPAQueryFactory(em)
+                    .update(member)
+                    .set(member.age, member.age.add(5))
+                    .where(member.id.eq(ids[0]))
+                    .execute();
+            return FlushTracker.isFlushing();
+        });
+        maintainer.pendingReconcile().get(5, TimeUnit.SECONDS);
+        //then flush 깊이가 0 으로 돌아와 벌크 update 를 놓치지 않는다
+        assertThat(flushingAfterBulk).isFalse();
+        assertThat(memberRepository.search(teamName("viewTeamA")))
+                .extracting("age").containsExactlyInAnyOrder(15, 25);
+    }
+
+    private static MemberSearchCndition teamName(String teamName) {
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.CountedPage;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.search.count.cap=3")
+@Transactional
+class CountModeTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    MemberSearchCndition condition;
+
+    @BeforeEach
+    public void before() {
+        Team team = new Team("countModeTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("countModeMember" + i, 10 * i, team));
+        }
+        condition = new MemberSearchCndition();
+        condition.setTeamName("countModeTeam");
+    }
+
+    @Test
+    public void exactCount() throws Exception {
+        //when
+        CountedPage<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), CountMode.EXACT);
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getCountMode()).isEqualTo(CountMode.EXACT);
+        assertThat(result.isTotalCapped()).isFalse();
+    }
+
+    @Test
+    public void cappedCount() throws Exception {
+        //when
+        CountedPage<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), CountMode.CAPPED);
+        //then 3개 넘게 있으면 3+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.isTotalCapped()).isTrue();
+        assertThat(result.getContent()).hasSize(2);
+    }
+
+    @Test
+    public void cappedCountUnderCap() throws Exception {
+        //given
+        condition.setAgeGoe(40);
+        //when
+        CountedPage<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1), CountMode.CAPPED);
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.isTotalCapped()).isFalse();
+    }
+
+    @Test
+    public void estimatedFallsBackToExactInWriteTransaction() throws Exception {
+        //when 쓰기 트랜잭션은 커밋 전 행이 통계에 없으므로 정확히 센다
+        CountedPage<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), CountMode.ESTIMATED);
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getCountMode()).isEqualTo(CountMode.EXACT);
+    }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.admission.MemberTableStats;
+import study.querydsl.dto.CountMode;
+import study.querydsl.dto.CountedPage;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.support.SqlCapture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ESTIMATED 는 읽기 전용 트랜잭션에서만 추정하므로 테스트 트랜잭션도 읽기 전용으로 돌린다.
+ * 데이터 변경은 별도 트랜잭션(REQUIRES_NEW)으로 커밋하고 끝나면 지운다. 통계 갱신은 백그라운드 주기 대신 refresh() 로 직접 한다.
+ */
+@SpringBootTest
+@Transactional(readOnly = true)
+@Import(SqlCapture.class)
+class EstimatedCountTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTableStats memberTableStats;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    TransactionTemplate newTransaction;
+    MemberSearchCndition condition;
+
+    @BeforeEach
+    public void before() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        //다른 테스트가 남긴 통계는 버린다
+        memberTableStats.refresh();
+        condition = new MemberSearchCndition();
+    }
+
+    @AfterEach
+    public void after() {
+        newTransaction.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'estimated%'")
+                .executeUpdate());
+    }
+
+    @Test
+    public void estimatedCountRunsNoCountQuery() throws Exception {
+        //given
+        CountedPage<MemberTeamDto> first = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), CountMode.ESTIMATED);
+        sqlCapture.clear();
+        //when
+        CountedPage<MemberTeamDto> second = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2), CountMode.ESTIMATED);
+        //then 조건이 없으면 통계의 행 수 그대로
+        long statsRows = memberTableStats.current().getRows();
+        assertThat(first.getTotalElements()).isEqualTo(statsRows);
+        assertThat(second.getTotalElements()).isEqualTo(statsRows);
+        assertThat(second.getCountMode()).isEqualTo(CountMode.ESTIMATED);
+        assertThat(sqlCapture.selects()).noneMatch(sql -> sql.contains("count("));
+    }
+
+    @Test
+    public void staleEstimateIsBoundedByPageAndFollowsRefresh() throws Exception {
+        //given 통계 적재 후 insert 가 커밋됐지만 아직 갱신 전이다
+        long before = memberTableStats.current().getRows();
+        long actual = em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+        newTransaction.executeWithoutResult(status -> {
+            for (int i = 1; i <= 5; i++) {
+                jdbcTemplate.update("insert into member (member_id, username, age) values (?, ?, ?)",
+                        -1000L - i, "estimatedJdbc" + i, 10);
+            }
+        });
+        PageRequest lastPage = PageRequest.of((int) (actual / 5), 5);
+
+        //when
+        CountedPage<MemberTeamDto> stale = memberRepository.searchPageComplex(condition, lastPage, CountMode.ESTIMATED);
+        memberTableStats.refresh();
+        CountedPage<MemberTeamDto> refreshed = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2), CountMode.ESTIMATED);
+
+        //then 낡은 추정치라도 읽은 페이지보다 작지 않고, 갱신 뒤에는 새 행 수를 따른다
+        assertThat(stale.getContent()).hasSize(5);
+        assertThat(stale.getTotalElements()).isGreaterThanOrEqualTo(lastPage.getOffset() + 5);
+        assertThat(refreshed.getTotalElements()).isEqualTo(memberTableStats.current().getRows());
+        assertThat(refreshed.getTotalElements()).isGreaterThanOrEqualTo(before + 5);
+    }
+}
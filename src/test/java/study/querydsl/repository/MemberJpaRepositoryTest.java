@@ -11,6 +11,7 @@ import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -65,4 +66,28 @@ public class MemberJpaRepositoryTest {
         //when
         //then
     }
-}
\ No newline at end of file
+
+    @Test
+    public void exportSearchTest() throws Exception {
+        //given
+        Team team = new Team("exportTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("exportMember" + i, i, team));
+        }
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("exportTeam");
+        condition.setAgeGoe(5);
+
+        //when
+        List<MemberTeamDto> exported = new ArrayList<>();
+        long count = memberJpaRepository.exportSearch(condition, exported::add);
+
+        //then
+        assertThat(count).isEqualTo(5);
+        assertThat(exported).extracting("username")
+                .containsExactly("exportMember5", "exportMember6", "exportMember7", "exportMember8", "exportMember9");
+        //호출한 쪽 영속성 컨텍스트는 그대로
+        assertThat(em.contains(team)).isTrue();
+    }
+}
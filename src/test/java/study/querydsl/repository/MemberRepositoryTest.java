@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberKeysetCursor;
 import study.querydsl.dto.MemberSearchCndition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.support.MaxQueries;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.as;
@@ -43,6 +48,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @MaxQueries(2) //팀 이름 조회 + 검색
     public void searchTest() throws Exception {
         //given
         Team teamA = new Team("teamA");
@@ -70,6 +76,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @MaxQueries(2) //content + count
     public void searchSimpleTest() throws Exception {
         //given
         Team teamA = new Team("teamA");
@@ -120,5 +127,123 @@ class MemberRepositoryTest {
         //then
     }
 
+    @Test
+    public void searchKeysetTest() throws Exception {
+        //given
+        Team team = new Team("keysetTeam");
+        em.persist(team);
+        em.persist(new Member("member1", 30, team));
+        em.persist(new Member("member2", 10, team));
+        em.persist(new Member("member3", 20, team));
+        em.persist(new Member("member4", 20, team));
+
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("keysetTeam");
+
+        //when
+        CursorSlice<MemberTeamDto> first = memberRepository.searchKeyset(condition, MemberKeysetCursor.first(MemberKeysetCursor.SortKey.AGE), 3);
+        CursorSlice<MemberTeamDto> second = memberRepository.searchKeyset(condition, MemberKeysetCursor.decode(first.getNextCursor()), 3);
+
+        //then
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username").containsExactly("member2", "member3", "member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting("username").containsExactly("member1");
+    }
+
+    @Test
+    @MaxQueries(2) //팀 이름 조회 + content, count 쿼리 없음
+    public void searchSliceTest() throws Exception {
+        //given
+        Team team = new Team("sliceTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, 10 * i, team));
+        }
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("sliceTeam");
+
+        //when
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+
+        //then
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.getContent()).extracting("username").containsExactly("member4", "member5");
+    }
+
+    @Test
+    public void searchAllTest() throws Exception {
+        //given
+        Team teamA = new Team("batchTeamA");
+        Team teamB = new Team("batchTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("batchMember1", 10, teamA));
+        em.persist(new Member("batchMember2", 20, teamA));
+        em.persist(new Member("batchMember3", 30, teamB));
+        em.persist(new Member("batchMember4", 40, teamB));
+
+        MemberSearchCndition byTeam = new MemberSearchCndition();
+        byTeam.setTeamName("batchTeamB");
+        MemberSearchCndition byUsername = new MemberSearchCndition();
+        byUsername.setUsername("batchMember1");
+        MemberSearchCndition byTeamAndAge = new MemberSearchCndition();
+        byTeamAndAge.setTeamName("batchTeamA");
+        byTeamAndAge.setAgeGoe(15);
+        MemberSearchCndition none = new MemberSearchCndition();
+        none.setUsername("batchMemberNone");
 
-}
\ No newline at end of file
+        //when
+        List<List<MemberTeamDto>> result = memberRepository.searchAll(List.of(byTeam, byUsername, byTeamAndAge, none));
+
+        //then
+        assertThat(result).hasSize(4);
+        assertThat(result.get(0)).extracting("username").containsExactly("batchMember3", "batchMember4");
+        assertThat(result.get(1)).extracting("username").containsExactly("batchMember1");
+        assertThat(result.get(2)).extracting("username").containsExactly("batchMember2");
+        assertThat(result.get(3)).isEmpty();
+    }
+
+    @Test
+    public void searchAllSplitsOverlappingAndEmptyConditions() throws Exception {
+        //given
+        Team teamA = new Team("batchTeamA");
+        em.persist(teamA);
+        em.persist(new Member("batchMember1", 10, teamA));
+        em.persist(new Member("batchMember2", 20, teamA));
+        em.persist(new Member("batchMember3", 30));
+
+        MemberSearchCndition byTeam = new MemberSearchCndition();
+        byTeam.setTeamName("batchTeamA");
+        MemberSearchCndition byAge = new MemberSearchCndition();
+        byAge.setAgeGoe(20);
+        MemberSearchCndition empty = new MemberSearchCndition();
+
+        //when
+        List<List<MemberTeamDto>> result = memberRepository.searchAll(List.of(byTeam, empty, byAge));
+
+        //then 한 행이 여러 조건에 맞으면 각 조건에 들어가고, 조건 없는 항목은 전체를 받는다
+        assertThat(result.get(0)).extracting("username").containsExactly("batchMember1", "batchMember2");
+        assertThat(result.get(1)).extracting("username").containsExactly("batchMember1", "batchMember2", "batchMember3");
+        assertThat(result.get(2)).extracting("username").containsExactly("batchMember2", "batchMember3");
+    }
+
+    @Test
+    public void searchAllRejectsTooManyConditions() throws Exception {
+        //given
+        List<MemberSearchCndition> conditions = new ArrayList<>();
+        for (int i = 0; i <= MemberRepositoryCustom.MAX_SEARCH_ALL_CONDITIONS; i++) {
+            MemberSearchCndition condition = new MemberSearchCndition();
+            condition.setUsername("batchMember" + i);
+            conditions.add(condition);
+        }
+        //when then
+        assertThrows(IllegalArgumentException.class, () -> memberRepository.searchAll(conditions));
+        assertThat(memberRepository.searchAll(conditions.subList(0, MemberRepositoryCustom.MAX_SEARCH_ALL_CONDITIONS)))
+                .hasSize(MemberRepositoryCustom.MAX_SEARCH_ALL_CONDITIONS);
+    }
+}
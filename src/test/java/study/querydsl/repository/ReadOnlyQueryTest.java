@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 쓰기 트랜잭션 안에서 Member 를 대량 로딩할 때 읽기 전용 조회는 dirty checking 스냅샷을 만들지 않는지 확인
+ * stateless 조회는 커밋된 데이터만 보므로 데이터를 커밋하고 끝나면 지운다.
+ */
+@SpringBootTest
+class ReadOnlyQueryTest {
+    private static final int ROWS = 5000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(new Member("readOnlyMember" + i, i % 100));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .delete(member)
+                .where(member.username.startsWith("readOnlyMember"))
+                .execute());
+    }
+
+    @Test
+    public void readOnlyModeSkipsSnapshots() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            //when then 읽기 전용이면 dirty checking 용 스냅샷(loadedState)이 없다
+            assertThat(entry(memberTestRepository.basicSelect().get(0)).getLoadedState()).isNotNull();
+            em.clear();
+            assertThat(entry(memberTestRepository.basicSelectReadOnly().get(0)).getLoadedState()).isNull();
+            em.clear();
+            assertThat(entry(memberTestRepository.basicSelectInReadOnlySession().get(0)).getLoadedState()).isNull();
+            em.clear();
+        });
+    }
+
+    @Test
+    public void statelessScan() throws Exception {
+        //given
+        AtomicLong ageSum = new AtomicLong();
+        //when
+        long count = memberTestRepository.scanMembers(member.username.startsWith("readOnlyMember"),
+                m -> ageSum.addAndGet(m.getAge()));
+        //then
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(ageSum.get()).isEqualTo((long) (ROWS / 100) * (99 * 100 / 2));
+    }
+
+    private EntityEntry entry(Member member) {
+        return em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getEntry(member);
+    }
+}
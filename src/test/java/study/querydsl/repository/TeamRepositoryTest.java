@@ -0,0 +1,56 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.MaxQueries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Test
+    @MaxQueries(3) //id 페이지 + count + fetch join
+    public void searchTeamsWithMembers() throws Exception {
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("pageTeam");
+            em.persist(team);
+            teams.add(team);
+            for (int j = 0; j <= i; j++) {
+                em.persist(new Member("pageMember" + i + "_" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        Page<TeamDto> first = teamRepository.searchTeamsWithMembers("pageTeam", PageRequest.of(0, 2));
+
+        //then
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getContent()).extracting("teamId")
+                .containsExactly(teams.get(0).getId(), teams.get(1).getId());
+        assertThat(first.getContent().get(0).getMembers()).extracting("username")
+                .containsExactly("pageMember0_0");
+        assertThat(first.getContent().get(1).getMembers()).extracting("username")
+                .containsExactly("pageMember1_0", "pageMember1_1");
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+import study.querydsl.support.SqlCapture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Import(SqlCapture.class)
+@Transactional
+class CountQueryBuilderTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("countTeamA");
+        Team teamB = new Team("countTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("countMember1", 10, teamA));
+        em.persist(new Member("countMember2", 20, teamA));
+        em.persist(new Member("countMember3", 30, teamB));
+        em.persist(new Member("countMember4", 40, teamB));
+        queryFactory = new JPAQueryFactory(em);
+        em.flush();
+        sqlCapture.clear();
+    }
+
+    @Test
+    public void unreferencedLeftJoinIsDropped() throws Exception {
+        //given
+        JPAQuery<Long> countQuery = new CountQueryBuilder(queryFactory, member, member.id)
+                .leftJoin(member.team, team)
+                .where(member.username.startsWith("countMember"), member.age.goe(20), null)
+                .build();
+        //when
+        Long count = countQuery.fetchOne();
+        //then 실제 실행된 SQL 에 team 조인이 없다
+        assertThat(count).isEqualTo(3L);
+        assertThat(sqlCapture.selects()).singleElement().satisfies(sql -> {
+            assertThat(sql).startsWith("select count(");
+            assertThat(sql).doesNotContain("join");
+        });
+    }
+
+    @Test
+    public void referencedLeftJoinIsKept() throws Exception {
+        //given
+        JPAQuery<Long> countQuery = new CountQueryBuilder(queryFactory, member, member.id)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("countTeamB"))
+                .build();
+        //when
+        Long count = countQuery.fetchOne();
+        //then
+        assertThat(count).isEqualTo(2L);
+        assertThat(sqlCapture.selects()).singleElement().satisfies(sql ->
+                assertThat(sql).containsPattern("left join team \\w+ on"));
+    }
+
+    @Test
+    public void innerJoinIsAlwaysKept() throws Exception {
+        //given
+        em.persist(new Member("countMember5", 50));
+        em.flush();
+        sqlCapture.clear();
+        JPAQuery<Long> countQuery = new CountQueryBuilder(queryFactory, member, member.id)
+                .join(member.team, team)
+                .where(member.username.startsWith("countMember"))
+                .build();
+        //when
+        Long count = countQuery.fetchOne();
+        //then
+        assertThat(count).isEqualTo(4L);
+        assertThat(sqlCapture.selects()).singleElement().satisfies(sql ->
+                assertThat(sql).containsPattern("join team \\w+ on").doesNotContain("left join"));
+    }
+
+    @Test
+    public void applyPaginationWithCountQuery() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("countTeamA");
+        //when
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 1));
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).hasSize(1);
+    }
+}
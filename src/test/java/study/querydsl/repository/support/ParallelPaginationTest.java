@@ -0,0 +1,177 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.assertj.core.util.Throwables;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCndition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 병렬 페이징은 별도 트랜잭션에서 조회하므로 테스트 데이터를 커밋하고 끝나면 지운다.
+ */
+@SpringBootTest
+class ParallelPaginationTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+    @Autowired
+    ParallelPagination parallelPagination;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("parallelTeam");
+            em.persist(team);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("parallelMember" + i, 10 * i, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = :name)")
+                    .setParameter("name", "parallelTeam")
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.name = :name")
+                    .setParameter("name", "parallelTeam")
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void searchPageParallel() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("parallelTeam");
+        //when
+        Page<MemberTeamDto> result = memberRepository.searchPageParallel(condition, PageRequest.of(0, 2));
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("username").containsExactly("parallelMember0", "parallelMember1");
+    }
+
+    @Test
+    public void lastPageSkipsCount() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("parallelTeam");
+        condition.setAgeGoe(30);
+        //when
+        Page<MemberTeamDto> result = memberRepository.searchPageParallel(condition, PageRequest.of(0, 10));
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.isLast()).isTrue();
+    }
+
+    @Test
+    public void applyPaginationParallel() throws Exception {
+        //given
+        MemberSearchCndition condition = new MemberSearchCndition();
+        condition.setTeamName("parallelTeam");
+        //when
+        Page<MemberTeamDto> result = memberTestRepository.applyPaginationParallel(condition, PageRequest.of(1, 2));
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent()).extracting("teamName").containsOnly("parallelTeam");
+    }
+
+    @Test
+    public void shortPageDoesNotWaitForCount() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        //when
+        Page<String> result;
+        try {
+            result = parallelPagination.getPage(PageRequest.of(0, 10), () -> List.of("a"), () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 100L;
+            });
+        } finally {
+            release.countDown();
+        }
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void cancelledCountIsNotExecuted() throws Exception {
+        //given
+        AtomicInteger executed = new AtomicInteger();
+        ParallelPagination.CancellableCount count = new ParallelPagination.CancellableCount(() -> {
+            executed.incrementAndGet();
+            return 5L;
+        });
+        //when
+        count.cancel();
+        Long total = transactionTemplate.execute(status -> count.run(em));
+        //then
+        assertThat(total).isEqualTo(-1);
+        assertThat(executed.get()).isZero();
+        assertThat(count.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void cancelStopsRunningCountStatement() throws Exception {
+        //given 데이터와 상관없이 오래 걸리는 count: 취소되어야만 빠져나온다
+        CountDownLatch running = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ParallelPagination.CancellableCount count = new ParallelPagination.CancellableCount(() -> {
+            running.countDown();
+            return ((Number) em.createNativeQuery("select sum(x) from system_range(1, 1000000000000)")
+                    .getSingleResult()).longValue();
+        });
+        Thread worker = new Thread(() -> {
+            try {
+                transactionTemplate.execute(status -> count.run(em));
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        worker.start();
+        //when
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        //statement 가 등록되기 전에 취소하면 놓칠 수 있으므로 끝날 때까지 반복해서 취소한다
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (worker.isAlive() && System.nanoTime() < until) {
+            count.cancel();
+            worker.join(100);
+        }
+        //then H2 의 statement 취소 (SQLState 57014) 로 끝났다
+        assertThat(worker.isAlive()).isFalse();
+        assertThat(failure.get()).hasRootCauseInstanceOf(SQLException.class);
+        assertThat(((SQLException) Throwables.getRootCause(failure.get())).getSQLState()).isEqualTo("57014");
+    }
+}
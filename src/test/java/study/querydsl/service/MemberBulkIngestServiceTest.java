@@ -0,0 +1,61 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkIngestReport;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberBulkIngestServiceTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberBulkIngestService memberBulkIngestService;
+
+    @Test
+    public void ingest() throws Exception {
+        //when
+        BulkIngestReport report = memberBulkIngestService.ingest(List.of("bulkTeamA", "bulkTeamB"), 250);
+
+        //then
+        assertThat(report.getTeams()).isEqualTo(2);
+        assertThat(report.getMembers()).isEqualTo(250);
+        assertThat(report.getRowsPerSecond()).isPositive();
+
+        Long teamACount = em.createQuery("select count(m) from Member m where m.team.name = :name", Long.class)
+                .setParameter("name", "bulkTeamA")
+                .getSingleResult();
+        assertThat(teamACount).isEqualTo(125);
+    }
+
+    @Test
+    public void callerEntitiesStayManaged() throws Exception {
+        //given 호출한 쪽이 관리하던 엔티티
+        Team team = new Team("callerTeam");
+        em.persist(team);
+        Member member = new Member("callerMember", 10, team);
+        em.persist(member);
+
+        //when
+        memberBulkIngestService.ingest(List.of("bulkTeamC"), 250);
+        member.setAge(20);
+        em.flush();
+
+        //then 분리되지 않았으므로 변경 감지로 반영된다
+        assertThat(em.contains(member)).isTrue();
+        assertThat(em.contains(team)).isTrue();
+        Integer age = em.createQuery("select m.age from Member m where m.id = :id", Integer.class)
+                .setParameter("id", member.getId())
+                .getSingleResult();
+        assertThat(age).isEqualTo(20);
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드에서 실행되는 select 수 상한
+ * 넘거나 같은 모양의 select 가 반복(N+1)되면 테스트가 실패한다. 시퀀스 조회, insert/update 는 세지 않는다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface MaxQueries {
+
+    int value();
+
+    //반복 select 허용 여부
+    boolean allowRepeats() default false;
+}
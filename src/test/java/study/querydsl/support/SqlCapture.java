@@ -0,0 +1,32 @@
+package study.querydsl.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 테스트용: Hibernate 가 실제로 실행한 SQL 을 모은다. @Import(SqlCapture.class) 로 등록하면 HibernateConfig 가 다른 StatementInspector 와 함께 묶는다.
+ * use_sql_comments 로 붙는 JPQL 주석은 떼고 공백을 하나로 줄여 소문자로 보관한다.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql.replaceAll("(?s)/\\*.*?\\*/", "").replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT));
+        return sql;
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    public List<String> selects() {
+        return statements.stream()
+                .filter(sql -> sql.startsWith("select"))
+                .toList();
+    }
+}
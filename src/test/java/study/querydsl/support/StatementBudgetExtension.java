@@ -0,0 +1,57 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import study.querydsl.metrics.StatementScope;
+import study.querydsl.metrics.StatementTracker;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @MaxQueries 처리. 테스트 메서드 하나를 StatementTracker 범위로 묶고 끝나면 예산과 반복 select 를 검사한다.
+ */
+public class StatementBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        maxQueries(context).ifPresent(maxQueries -> {
+            StatementTracker tracker = SpringExtension.getApplicationContext(context).getBean(StatementTracker.class);
+            StatementScope scope = tracker.open(context.getDisplayName(), 0);
+            context.getStore(NAMESPACE).put(StatementScope.class, scope);
+        });
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        StatementScope scope = context.getStore(NAMESPACE).remove(StatementScope.class, StatementScope.class);
+        if (scope == null) {
+            return;
+        }
+        StatementTracker tracker = SpringExtension.getApplicationContext(context).getBean(StatementTracker.class);
+        tracker.close(scope);
+
+        MaxQueries maxQueries = maxQueries(context).orElseThrow();
+        assertThat(scope.getSelects())
+                .as(scope.summary())
+                .isLessThanOrEqualTo(maxQueries.value());
+        if (!maxQueries.allowRepeats()) {
+            assertThat(scope.getRepeatedShapes())
+                    .as(scope.summary())
+                    .isEmpty();
+        }
+    }
+
+    private static Optional<MaxQueries> maxQueries(ExtensionContext context) {
+        Optional<MaxQueries> onMethod = context.getTestMethod().map(method -> method.getAnnotation(MaxQueries.class));
+        if (onMethod.isPresent()) {
+            return onMethod;
+        }
+        return context.getTestClass().map(type -> type.getAnnotation(MaxQueries.class));
+    }
+}